@@ -25,24 +25,37 @@ android {
             )
         }
     }
+    androidResources {
+        // The offline dictionary is memory-mapped straight from the APK
+        noCompress += "wwd"
+    }
     compileOptions {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
     }
+    testOptions {
+        // Services create main-thread Handlers, local tests use their blocking paths instead
+        unitTests.isReturnDefaultValues = true
+    }
 }
 
 dependencies {
 
+    implementation(project(":engine"))
     implementation(libs.appcompat)
     implementation(libs.material)
     implementation(libs.activity)
     implementation(libs.constraintlayout)
+    implementation(libs.recyclerview)
     
     // Network dependencies for API calls
     implementation("com.squareup.okhttp3:okhttp:4.12.0")
     implementation("com.google.code.gson:gson:2.10.1")
     
     testImplementation(libs.junit)
+    // Microbenchmarks in src/test (*Benchmark), run their main() to execute
+    testImplementation(libs.jmh.core)
+    testAnnotationProcessor(libs.jmh.generator)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
 }
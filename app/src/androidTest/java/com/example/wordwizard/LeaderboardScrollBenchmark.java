@@ -0,0 +1,120 @@
+package com.example.wordwizard;
+
+import android.content.Context;
+import android.util.Log;
+import android.view.Choreographer;
+import android.view.ViewGroup;
+
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Frame-time benchmark for the leaderboard list: flings through 10,000 rows one step per frame
+ * and reports the frame time percentiles and the number of live row views.
+ * Results are logged under the "LeaderboardScroll" tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class LeaderboardScrollBenchmark {
+
+    private static final String TAG = "LeaderboardScroll";
+    private static final int ROWS = 10_000;
+    private static final int WARMUP_FRAMES = 30;
+    private static final int MEASURED_FRAMES = 600;
+    private static final int SCROLL_PX_PER_FRAME = 120;
+    private static final long FRAME_BUDGET_NANOS = 16_666_667;
+
+    // A fresh install would send MainActivity straight on to onboarding
+    @Before
+    public void skipOnboarding() {
+        ApplicationProvider.getApplicationContext()
+                .getSharedPreferences("WordWizardPrefs", Context.MODE_PRIVATE)
+                .edit()
+                .putBoolean("isFirstTime", false)
+                .commit();
+    }
+
+    @Test
+    public void scrollTenThousandRows() throws InterruptedException {
+        LeaderboardSnapshot.Builder builder = new LeaderboardSnapshot.Builder(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            builder.add(new LeaderboardEntry("Player" + i, ROWS - i, 30 + i % 600, "Level" + (i % 9), ""));
+        }
+        LeaderboardSnapshot snapshot = builder.build();
+
+        long[] frameNanos = new long[MEASURED_FRAMES];
+        int[] maxChildren = new int[1];
+        RecyclerView[] list = new RecyclerView[1];
+        CountDownLatch done = new CountDownLatch(1);
+
+        try (ActivityScenario<MainActivity> scenario = ActivityScenario.launch(MainActivity.class)) {
+            scenario.onActivity(activity -> {
+                RecyclerView recyclerView = new RecyclerView(activity);
+                recyclerView.setLayoutParams(new ViewGroup.LayoutParams(
+                        ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+                recyclerView.setLayoutManager(new LinearLayoutManager(activity));
+                recyclerView.setHasFixedSize(true);
+                LeaderboardAdapter adapter = new LeaderboardAdapter(activity);
+                recyclerView.setAdapter(adapter);
+                adapter.submit(snapshot);
+                activity.setContentView(recyclerView);
+                list[0] = recyclerView;
+
+                Choreographer.getInstance().postFrameCallback(new Choreographer.FrameCallback() {
+                    private int frame = 0;
+                    private long lastFrame = 0;
+
+                    @Override
+                    public void doFrame(long frameTimeNanos) {
+                        int measured = frame - WARMUP_FRAMES;
+                        if (measured >= 0 && measured < MEASURED_FRAMES) {
+                            frameNanos[measured] = frameTimeNanos - lastFrame;
+                        }
+                        lastFrame = frameTimeNanos;
+                        maxChildren[0] = Math.max(maxChildren[0], recyclerView.getChildCount());
+                        if (++frame > WARMUP_FRAMES + MEASURED_FRAMES) {
+                            adapter.shutdown();
+                            done.countDown();
+                            return;
+                        }
+                        recyclerView.scrollBy(0, SCROLL_PX_PER_FRAME);
+                        Choreographer.getInstance().postFrameCallback(this);
+                    }
+                });
+            });
+
+            assertTrue("Scrolling did not finish", done.await(60, TimeUnit.SECONDS));
+            assertEquals(ROWS, list[0].getAdapter().getItemCount());
+        }
+
+        long[] sorted = frameNanos.clone();
+        Arrays.sort(sorted);
+        long p50 = sorted[MEASURED_FRAMES / 2];
+        long p90 = sorted[MEASURED_FRAMES * 9 / 10];
+        long p99 = sorted[MEASURED_FRAMES * 99 / 100];
+        int janky = 0;
+        for (long nanos : frameNanos) {
+            if (nanos > 2 * FRAME_BUDGET_NANOS) janky++;
+        }
+        Log.i(TAG, String.format("frames=%d p50=%.1fms p90=%.1fms p99=%.1fms janky=%d maxLiveRows=%d",
+                MEASURED_FRAMES, p50 / 1e6, p90 / 1e6, p99 / 1e6, janky, maxChildren[0]));
+
+        // Only a screenful of rows may exist, however long the board is
+        assertTrue("Too many live row views: " + maxChildren[0], maxChildren[0] < 100);
+        // Loose bound so slow emulators pass, a view-per-row list misses it by far
+        assertTrue("p90 frame time " + p90 / 1e6 + "ms", p90 < 2 * FRAME_BUDGET_NANOS);
+    }
+}
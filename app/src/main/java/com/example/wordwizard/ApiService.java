@@ -3,34 +3,57 @@ package com.example.wordwizard;
 import android.os.Handler;
 import android.os.Looper;
 
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
-
 import java.io.IOException;
-import java.lang.reflect.Type;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
+import okhttp3.ResponseBody;
 
-public class ApiService {
+public class ApiService implements WordSource {
 
-    private static final String RANDOM_WORD_API = "https://random-word-api.herokuapp.com/word";
-    private static final String THESAURUS_API = "https://api.api-ninjas.com/v1/thesaurus?word=";
     private static final String API_NINJAS_KEY = "YOUR_API_KEY"; // User should add their key
+
+    // Batched length search: words per request, request cap and leftovers kept per length
+    private static final int LENGTH_FETCH_BATCH_SIZE = 20;
+    private static final int MAX_LENGTH_FETCHES = 5;
+    private static final int LEFTOVER_WORDS_PER_LENGTH = 10;
     
-    private final OkHttpClient client;
-    private final Gson gson;
-    private final ExecutorService executorService;
+    private final Supplier<OkHttpClient> client;
+    private final NetworkScheduler scheduler;
+    private final Endpoints endpoints;
     private final Handler mainHandler;
+    private final LengthBuckets leftoverWords = new LengthBuckets(LEFTOVER_WORDS_PER_LENGTH);
+    private final CircuitBreaker wordBreaker = new CircuitBreaker("random-word-api");
+    private final CircuitBreaker thesaurusBreaker = new CircuitBreaker("thesaurus");
+    private final MetricsRegistry metrics = MetricsRegistry.getDefault();
+    private final AtomicInteger httpCallCount = new AtomicInteger();
+    private volatile int lastLengthFetchCalls = 0;
+
+    public ApiService(OkHttpClient client, NetworkScheduler scheduler) {
+        this(() -> client, scheduler, Endpoints.PRODUCTION);
+    }
+
+    public ApiService(OkHttpClient client, NetworkScheduler scheduler, Endpoints endpoints) {
+        this(() -> client, scheduler, endpoints);
+    }
 
-    public ApiService() {
-        this.client = new OkHttpClient();
-        this.gson = new Gson();
-        this.executorService = Executors.newSingleThreadExecutor();
+    /**
+     * @param client Asked for the client on a network lane whenever a request is made, so it can be
+     *               built there instead of on the thread creating the service
+     */
+    public ApiService(Supplier<OkHttpClient> client, NetworkScheduler scheduler) {
+        this(client, scheduler, Endpoints.PRODUCTION);
+    }
+
+    ApiService(Supplier<OkHttpClient> client, NetworkScheduler scheduler, Endpoints endpoints) {
+        this.client = client;
+        this.scheduler = scheduler;
+        this.endpoints = endpoints;
         this.mainHandler = new Handler(Looper.getMainLooper());
     }
 
@@ -41,90 +64,232 @@ public class ApiService {
     }
 
     // Get random word
-    public void getRandomWord(final ApiCallback<String> callback) {
-        executorService.execute(() -> {
+    @Override
+    public RequestHandle getRandomWord(final ApiCallback<String> callback) {
+        RequestHandle handle = new RequestHandle();
+        long start = System.nanoTime();
+        handle.setTask(scheduler.submit(NetworkScheduler.Lane.ROUND_WORD, () -> {
+            try {
+                List<String> words = fetchRandomWords(1, handle);
+                if (!words.isEmpty()) {
+                    String word = words.get(0);
+                    metrics.recordMillisSince("word.random.ms", start);
+                    handle.post(mainHandler, () -> callback.onSuccess(word));
+                } else {
+                    recordFailure("word.random", handle);
+                    handle.post(mainHandler, () -> callback.onError("No word returned"));
+                }
+            } catch (ApiException e) {
+                recordFailure("word.random", handle);
+                handle.post(mainHandler, () -> callback.onError(e.getMessage()));
+            } catch (IOException e) {
+                recordFailure("word.random", handle);
+                handle.post(mainHandler, () -> callback.onError("Network error: " + e.getMessage()));
+            }
+        }));
+        return handle;
+    }
+
+    // Get several random words with a single request
+    public RequestHandle getRandomWords(int count, final ApiCallback<List<String>> callback) {
+        RequestHandle handle = new RequestHandle();
+        long start = System.nanoTime();
+        handle.setTask(scheduler.submit(NetworkScheduler.Lane.BACKGROUND, () -> {
             try {
-                Request request = new Request.Builder()
-                        .url(RANDOM_WORD_API)
-                        .build();
-
-                Response response = client.newCall(request).execute();
-                if (response.isSuccessful() && response.body() != null) {
-                    String responseBody = response.body().string();
-                    Type listType = new TypeToken<List<String>>(){}.getType();
-                    List<String> words = gson.fromJson(responseBody, listType);
-                    
-                    if (words != null && !words.isEmpty()) {
-                        String word = words.get(0);
-                        mainHandler.post(() -> callback.onSuccess(word));
-                    } else {
-                        mainHandler.post(() -> callback.onError("No word returned"));
-                    }
+                List<String> words = fetchRandomWords(count, handle);
+                if (!words.isEmpty()) {
+                    metrics.recordMillisSince("word.batch.ms", start);
+                    handle.post(mainHandler, () -> callback.onSuccess(words));
                 } else {
-                    mainHandler.post(() -> callback.onError("API request failed"));
+                    recordFailure("word.batch", handle);
+                    handle.post(mainHandler, () -> callback.onError("No word returned"));
                 }
+            } catch (ApiException e) {
+                recordFailure("word.batch", handle);
+                handle.post(mainHandler, () -> callback.onError(e.getMessage()));
             } catch (IOException e) {
-                mainHandler.post(() -> callback.onError("Network error: " + e.getMessage()));
+                recordFailure("word.batch", handle);
+                handle.post(mainHandler, () -> callback.onError("Network error: " + e.getMessage()));
             }
-        });
+        }));
+        return handle;
     }
 
     // Get random word with minimum length (for difficulty levels)
-    public void getRandomWordWithLength(int minLength, final ApiCallback<String> callback) {
-        getRandomWord(new ApiCallback<String>() {
-            @Override
-            public void onSuccess(String word) {
-                if (word.length() >= minLength) {
-                    callback.onSuccess(word);
+    @Override
+    public RequestHandle getRandomWordWithLength(int minLength, final ApiCallback<String> callback) {
+        RequestHandle handle = new RequestHandle();
+        long start = System.nanoTime();
+        handle.setTask(scheduler.submit(NetworkScheduler.Lane.ROUND_WORD, () -> {
+            try {
+                String result = fetchWordWithLength(minLength, handle);
+                if (result != null) {
+                    metrics.recordMillisSince("word.length.ms", start);
+                    handle.post(mainHandler, () -> callback.onSuccess(result));
+                } else {
+                    recordFailure("word.length", handle);
+                    handle.post(mainHandler, () -> callback.onError("No word with " + minLength + " letters found"));
+                }
+            } catch (ApiException e) {
+                recordFailure("word.length", handle);
+                handle.post(mainHandler, () -> callback.onError(e.getMessage()));
+            } catch (IOException e) {
+                recordFailure("word.length", handle);
+                handle.post(mainHandler, () -> callback.onError("Network error: " + e.getMessage()));
+            }
+        }));
+        return handle;
+    }
+
+    /**
+     * Blocking search for a word with at least minLength letters, in batches of random words.
+     * Words too short for this level are kept for later ones. Must run on a scheduler lane or a test thread.
+     * @return the word, or null if none turned up within MAX_LENGTH_FETCHES batches
+     */
+    String fetchWordWithLength(int minLength, RequestHandle handle) throws IOException {
+        int calls = 0;
+        String word = leftoverWords.poll(minLength);
+        while (word == null && calls < MAX_LENGTH_FETCHES) {
+            // Ask for a batch and keep the words that are too short for later levels
+            calls++;
+            for (String candidate : fetchRandomWords(LENGTH_FETCH_BATCH_SIZE, handle)) {
+                if (word == null && candidate.length() >= minLength) {
+                    word = candidate;
                 } else {
-                    // Try again if word is too short
-                    getRandomWordWithLength(minLength, callback);
+                    leftoverWords.offer(candidate);
                 }
             }
+        }
+        lastLengthFetchCalls = calls;
+        // 0 when a leftover word was long enough, more than 1 when batches had to be retried
+        metrics.histogram("word.length.fetches").record(calls);
+        return word;
+    }
+
+    /**
+     * Blocking request to the word endpoint, must run on a scheduler lane or a test thread
+     */
+    List<String> fetchRandomWords(int count, RequestHandle handle) throws IOException {
+        String url = count > 1 ? endpoints.randomWordUrl() + "?number=" + count : endpoints.randomWordUrl();
+        Request request = new Request.Builder()
+                .url(url)
+                .build();
 
-            @Override
-            public void onError(String error) {
-                callback.onError(error);
+        httpCallCount.incrementAndGet();
+        try (Response response = wordBreaker.execute(handle.track(client.get().newCall(request)), handle)) {
+            ResponseBody body = response.body();
+            if (response.isSuccessful() && body != null) {
+                return JsonDecoders.decode(JsonDecoders.WORD_LIST, body.source());
+            } else {
+                throw new ApiException("API request failed");
             }
-        });
+        }
     }
 
     // Get synonyms for hints (using thesaurus)
-    public void getSynonyms(String word, final ApiCallback<List<String>> callback) {
-        executorService.execute(() -> {
+    public RequestHandle getSynonyms(String word, final ApiCallback<List<String>> callback) {
+        RequestHandle handle = new RequestHandle();
+        handle.setTask(scheduler.submit(NetworkScheduler.Lane.HINT, () -> {
             try {
-                Request request = new Request.Builder()
-                        .url(THESAURUS_API + word)
-                        .addHeader("X-Api-Key", API_NINJAS_KEY)
-                        .build();
-
-                Response response = client.newCall(request).execute();
-                if (response.isSuccessful() && response.body() != null) {
-                    String responseBody = response.body().string();
-                    ThesaurusResponse thesaurusResponse = gson.fromJson(responseBody, ThesaurusResponse.class);
-                    
-                    if (thesaurusResponse != null && thesaurusResponse.synonyms != null && 
-                        !thesaurusResponse.synonyms.isEmpty()) {
-                        mainHandler.post(() -> callback.onSuccess(thesaurusResponse.synonyms));
-                    } else {
-                        mainHandler.post(() -> callback.onError("No synonyms found"));
-                    }
+                List<String> synonyms = fetchSynonyms(word, handle);
+                if (!synonyms.isEmpty()) {
+                    handle.post(mainHandler, () -> callback.onSuccess(synonyms));
                 } else {
-                    mainHandler.post(() -> callback.onError("Thesaurus API request failed"));
+                    handle.post(mainHandler, () -> callback.onError("No synonyms found"));
                 }
+            } catch (ApiException e) {
+                handle.post(mainHandler, () -> callback.onError(e.getMessage()));
             } catch (IOException e) {
-                mainHandler.post(() -> callback.onError("Network error: " + e.getMessage()));
+                handle.post(mainHandler, () -> callback.onError("Network error: " + e.getMessage()));
+            }
+        }));
+        return handle;
+    }
+
+    /**
+     * Future version of {@link #getRandomWords}, cancelling the future cancels the request
+     */
+    public CompletableFuture<List<String>> randomWords(int count) {
+        return Futures.fromApi(callback -> getRandomWords(count, callback));
+    }
+
+    /**
+     * Future version of {@link #getSynonyms}, cancelling the future cancels the request
+     */
+    public CompletableFuture<List<String>> synonyms(String word) {
+        return Futures.fromApi(callback -> getSynonyms(word, callback));
+    }
+
+    /**
+     * Blocking request to the thesaurus endpoint, for callers running on their own background thread
+     * @param handle Handle that can abort the call
+     * @return the synonyms, empty if the word has none
+     */
+    List<String> fetchSynonyms(String word, RequestHandle handle) throws IOException {
+        // Timed here rather than in getSynonyms, SynonymCache calls this directly
+        long start = System.nanoTime();
+        try {
+            List<String> synonyms = requestSynonyms(word, handle);
+            metrics.recordMillisSince("synonyms.ms", start);
+            if (synonyms.isEmpty()) {
+                metrics.increment("synonyms.empty");
+            }
+            return synonyms;
+        } catch (IOException e) {
+            recordFailure("synonyms", handle);
+            throw e;
+        }
+    }
+
+    private List<String> requestSynonyms(String word, RequestHandle handle) throws IOException {
+        Request request = new Request.Builder()
+                .url(endpoints.thesaurusUrl(word))
+                .addHeader("X-Api-Key", API_NINJAS_KEY)
+                .build();
+
+        try (Response response = thesaurusBreaker.execute(handle.track(client.get().newCall(request)), handle)) {
+            ResponseBody body = response.body();
+            if (response.isSuccessful() && body != null) {
+                return JsonDecoders.decode(JsonDecoders.THESAURUS_SYNONYMS, body.source());
+            } else {
+                throw new ApiException("Thesaurus API request failed");
             }
-        });
+        }
+    }
+
+    // Requests the caller cancelled are not failures
+    private void recordFailure(String metric, RequestHandle handle) {
+        if (!handle.isCancelled()) {
+            metrics.increment(metric + ".errors");
+        }
+    }
+
+    // Number of HTTP calls made to the word endpoint so far
+    public int getHttpCallCount() {
+        return httpCallCount.get();
     }
 
-    // Helper class for thesaurus response
-    private static class ThesaurusResponse {
-        List<String> synonyms;
-        List<String> antonyms;
+    // Number of HTTP calls the last getRandomWordWithLength needed (0 when served from leftovers)
+    public int getLastLengthFetchCalls() {
+        return lastLengthFetchCalls;
     }
 
-    public void shutdown() {
-        executorService.shutdown();
+    // Health of the word endpoint, failing fast while it is down
+    public CircuitBreaker getWordBreaker() {
+        return wordBreaker;
+    }
+
+    // Health of the thesaurus endpoint, hints fall back right away while it is down
+    public CircuitBreaker getThesaurusBreaker() {
+        return thesaurusBreaker;
+    }
+
+    // Error reported by the API itself rather than the network
+    static class ApiException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        ApiException(String message) {
+            super(message);
+        }
     }
 }
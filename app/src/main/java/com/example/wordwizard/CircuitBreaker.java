@@ -0,0 +1,231 @@
+package com.example.wordwizard;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import okhttp3.Call;
+import okhttp3.Response;
+
+/**
+ * Circuit breaker and adaptive timeout for one remote endpoint.
+ * After too many of the recent calls failed, calls are refused right away for a while so the
+ * callers' fallbacks run immediately instead of after a timeout. Then one probe call is let through
+ * (half-open) and its outcome decides whether the circuit closes again.
+ * Each call's timeout follows the endpoint's recent latency: twice the p99, within fixed bounds.
+ * Latencies are also exported to the default metrics registry, as "breaker." plus the name plus ".ms".
+ * Thread safe.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        // Calls go through
+        CLOSED,
+        // Calls are refused until the open period is over
+        OPEN,
+        // One probe call decides between CLOSED and OPEN
+        HALF_OPEN
+    }
+
+    // Recent call outcomes the failure rate is taken over, and how many are needed to open
+    private static final int OUTCOME_WINDOW = 20;
+    private static final int MIN_CALLS = 10;
+    private static final double FAILURE_RATE_TO_OPEN = 0.5;
+    private static final long OPEN_MILLIS = 30_000;
+
+    // Timeout used until enough latencies are known, and the adaptive timeout's bounds
+    private static final long DEFAULT_TIMEOUT_MS = 10_000;
+    private static final long MIN_TIMEOUT_MS = 2_000;
+    private static final long MAX_TIMEOUT_MS = 15_000;
+    private static final int MIN_LATENCY_SAMPLES = 20;
+    private static final double TIMEOUT_PERCENTILE = 0.99;
+    private static final int TIMEOUT_FACTOR = 2;
+    // Latencies of the last one to two windows make the percentile
+    private static final long LATENCY_WINDOW_MS = 60_000;
+
+    private final String name;
+    private final LongSupplier clock;
+    private final WindowedHistogram latencies = new WindowedHistogram();
+    private final LogLinearHistogram latencyMetric;
+    private long latencyWindowStart;
+
+    private State state = State.CLOSED;
+    private final boolean[] failures = new boolean[OUTCOME_WINDOW];
+    private int outcomeCount = 0;
+    private int nextOutcome = 0;
+    private int failureCount = 0;
+    private long openedAt = 0;
+    private boolean probeInFlight = false;
+    private long rejectedCount = 0;
+    private long openCount = 0;
+
+    public CircuitBreaker(String name) {
+        this(name, System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock Current time in milliseconds, replaceable for tests
+     */
+    CircuitBreaker(String name, LongSupplier clock) {
+        this.name = name;
+        this.clock = clock;
+        this.latencyMetric = MetricsRegistry.getDefault().histogram("breaker." + name + ".ms");
+        this.latencyWindowStart = clock.getAsLong();
+    }
+
+    /**
+     * Execute the call with the adaptive timeout and record how it went.
+     * Server errors (5xx) count as failures but the response is still returned to the caller.
+     * Calls cancelled through their handle are not counted.
+     * @throws CircuitOpenException right away while the endpoint is considered down
+     */
+    public Response execute(Call call, RequestHandle handle) throws IOException {
+        acquire();
+        call.timeout().timeout(getTimeoutMillis(), TimeUnit.MILLISECONDS);
+        long start = clock.getAsLong();
+        Response response;
+        try {
+            response = call.execute();
+        } catch (IOException e) {
+            // A timed out call is canceled too, so ask the handle who gave up
+            if (handle.isCancelled()) {
+                release();
+            } else {
+                record(false, 0);
+            }
+            throw e;
+        }
+        record(response.code() < 500, clock.getAsLong() - start);
+        return response;
+    }
+
+    // Let a call through or refuse it, moving from OPEN to HALF_OPEN once the open period is over
+    synchronized void acquire() throws CircuitOpenException {
+        if (state == State.OPEN && clock.getAsLong() - openedAt >= OPEN_MILLIS) {
+            state = State.HALF_OPEN;
+        }
+        if (state == State.OPEN || state == State.HALF_OPEN && probeInFlight) {
+            rejectedCount++;
+            long retryIn = Math.max(0, OPEN_MILLIS - (clock.getAsLong() - openedAt));
+            throw new CircuitOpenException(name + " is unavailable, retrying in "
+                    + TimeUnit.MILLISECONDS.toSeconds(retryIn) + " s");
+        }
+        if (state == State.HALF_OPEN) {
+            probeInFlight = true;
+        }
+    }
+
+    // The call was cancelled, let the next probe through
+    synchronized void release() {
+        probeInFlight = false;
+    }
+
+    synchronized void record(boolean success, long latencyMillis) {
+        if (success) {
+            rotateLatencies();
+            latencies.record(latencyMillis);
+            latencyMetric.record(latencyMillis);
+        }
+        if (state == State.HALF_OPEN) {
+            probeInFlight = false;
+            if (success) {
+                close();
+            } else {
+                open();
+            }
+            return;
+        }
+
+        if (outcomeCount == OUTCOME_WINDOW && failures[nextOutcome]) {
+            failureCount--;
+        }
+        failures[nextOutcome] = !success;
+        if (!success) failureCount++;
+        nextOutcome = (nextOutcome + 1) % OUTCOME_WINDOW;
+        outcomeCount = Math.min(outcomeCount + 1, OUTCOME_WINDOW);
+
+        if (state == State.CLOSED && outcomeCount >= MIN_CALLS
+                && failureCount >= FAILURE_RATE_TO_OPEN * outcomeCount) {
+            open();
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = clock.getAsLong();
+        openCount++;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        outcomeCount = 0;
+        nextOutcome = 0;
+        failureCount = 0;
+    }
+
+    private void rotateLatencies() {
+        long now = clock.getAsLong();
+        if (now - latencyWindowStart < LATENCY_WINDOW_MS) return;
+
+        // More than one window without samples leaves nothing worth keeping
+        if (now - latencyWindowStart < 2 * LATENCY_WINDOW_MS) {
+            latencies.rotate();
+        } else {
+            latencies.clear();
+        }
+        latencyWindowStart = now;
+    }
+
+    /**
+     * Timeout for the next call: twice the recent p99 latency, within 2-15 s
+     */
+    public synchronized long getTimeoutMillis() {
+        rotateLatencies();
+        if (latencies.getCount() < MIN_LATENCY_SAMPLES) return DEFAULT_TIMEOUT_MS;
+        long timeout = latencies.getPercentile(TIMEOUT_PERCENTILE) * TIMEOUT_FACTOR;
+        return Math.max(MIN_TIMEOUT_MS, Math.min(MAX_TIMEOUT_MS, timeout));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized State getState() {
+        // Report HALF_OPEN as soon as a probe would be allowed
+        if (state == State.OPEN && clock.getAsLong() - openedAt >= OPEN_MILLIS) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    // Failure rate over the recent calls
+    public synchronized double getFailureRate() {
+        return outcomeCount == 0 ? 0 : (double) failureCount / outcomeCount;
+    }
+
+    // Calls refused while open
+    public synchronized long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    // Times the circuit opened
+    public synchronized long getOpenCount() {
+        return openCount;
+    }
+
+    public synchronized long getLatencyPercentile(double percentile) {
+        rotateLatencies();
+        return latencies.getPercentile(percentile);
+    }
+
+    /**
+     * Call refused because the endpoint is considered down
+     */
+    public static class CircuitOpenException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        CircuitOpenException(String message) {
+            super(message);
+        }
+    }
+}
@@ -4,28 +4,49 @@ import android.os.Handler;
 import android.os.Looper;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
+import okhttp3.Cache;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
+import okhttp3.ResponseBody;
 
 public class DreamloService {
 
     private static final String PRIVATE_CODE = "oBrzOc0jok6EaHxhCjWWoAYj2ICAN4zEioOoXMRSBfMw";
     private static final String PUBLIC_CODE = "68dee2538f40bb08d0afa554";
-    private static final String BASE_URL = "http://dreamlo.com/lb/";
 
-    private final OkHttpClient client;
-    private final ExecutorService executorService;
+    private final Supplier<OkHttpClient> client;
+    private final NetworkScheduler scheduler;
+    private final Endpoints endpoints;
     private final Handler mainHandler;
+    private final CircuitBreaker breaker = new CircuitBreaker("dreamlo");
+    private final MetricsRegistry metrics = MetricsRegistry.getDefault();
 
-    public DreamloService() {
-        this.client = new OkHttpClient();
-        this.executorService = Executors.newSingleThreadExecutor();
+    public DreamloService(OkHttpClient client, NetworkScheduler scheduler) {
+        this(() -> client, scheduler, Endpoints.PRODUCTION);
+    }
+
+    public DreamloService(OkHttpClient client, NetworkScheduler scheduler, Endpoints endpoints) {
+        this(() -> client, scheduler, endpoints);
+    }
+
+    /**
+     * @param client Asked for the client on a network lane whenever a request is made, so it can be
+     *               built there instead of on the thread creating the service
+     */
+    public DreamloService(Supplier<OkHttpClient> client, NetworkScheduler scheduler) {
+        this(client, scheduler, Endpoints.PRODUCTION);
+    }
+
+    DreamloService(Supplier<OkHttpClient> client, NetworkScheduler scheduler, Endpoints endpoints) {
+        this.client = client;
+        this.scheduler = scheduler;
+        this.endpoints = endpoints;
         this.mainHandler = new Handler(Looper.getMainLooper());
     }
 
@@ -41,100 +62,212 @@ public class DreamloService {
      * @param seconds Time taken in seconds
      * @param level Current level reached
      */
-    public void submitScore(String playerName, int score, int seconds, int level, DreamloCallback<Boolean> callback) {
-        executorService.execute(() -> {
+    public RequestHandle submitScore(String playerName, int score, int seconds, int level, DreamloCallback<Boolean> callback) {
+        RequestHandle handle = new RequestHandle();
+        handle.setTask(scheduler.submit(NetworkScheduler.Lane.BACKGROUND, () -> {
             try {
-                // Clean player name (remove spaces and special chars, Dreamlo doesn't allow them)
-                String cleanName = playerName.replaceAll("[^a-zA-Z0-9]", "");
-                if (cleanName.isEmpty()) {
-                    cleanName = "Player";
-                }
+                postScore(playerName, score, seconds, level, handle);
+                handle.post(mainHandler, () -> callback.onSuccess(true));
+            } catch (DreamloException e) {
+                handle.post(mainHandler, () -> callback.onError(e.getMessage()));
+            } catch (IOException e) {
+                handle.post(mainHandler, () -> callback.onError("Network error: " + e.getMessage()));
+            }
+        }));
+        return handle;
+    }
 
-                // Format: /add/NAME/SCORE/SECONDS/TEXT
-                String text = "Level" + level;
-                String url = BASE_URL + PRIVATE_CODE + "/add/" + cleanName + "/" + score + "/" + seconds + "/" + text;
+    /**
+     * Blocking score submission, for callers running on their own background thread
+     */
+    void postScore(String playerName, int score, int seconds, int level, RequestHandle handle) throws IOException {
+        // Format: /add/NAME/SCORE/SECONDS/TEXT
+        String text = "Level" + level;
+        String url = endpoints.dreamloUrl(PRIVATE_CODE) + "/add/" + cleanName(playerName) + "/" + score + "/" + seconds + "/" + text;
 
-                Request request = new Request.Builder()
-                        .url(url)
-                        .build();
+        Request request = new Request.Builder()
+                .url(url)
+                .build();
 
-                Response response = client.newCall(request).execute();
-                if (response.isSuccessful()) {
-                    mainHandler.post(() -> callback.onSuccess(true));
-                } else {
-                    mainHandler.post(() -> callback.onError("Failed to submit score"));
-                }
-                response.close();
-            } catch (IOException e) {
-                mainHandler.post(() -> callback.onError("Network error: " + e.getMessage()));
+        long start = System.nanoTime();
+        try (Response response = breaker.execute(handle.track(client.get().newCall(request)), handle)) {
+            if (response.isSuccessful()) {
+                evictCachedLeaderboards();
+                metrics.recordMillisSince("dreamlo.submit.ms", start);
+            } else {
+                throw new DreamloException("Failed to submit score");
             }
-        });
+        } catch (IOException e) {
+            recordFailure("dreamlo.submit", handle);
+            throw e;
+        }
+    }
+
+    // Clean player name (remove spaces and special chars, Dreamlo doesn't allow them)
+    static String cleanName(String playerName) {
+        String cleanName = playerName.replaceAll("[^a-zA-Z0-9]", "");
+        return cleanName.isEmpty() ? "Player" : cleanName;
     }
 
     /**
      * Get top scores from leaderboard
      * @param limit Number of top scores to retrieve
      */
-    public void getTopScores(int limit, DreamloCallback<List<LeaderboardEntry>> callback) {
-        executorService.execute(() -> {
+    public RequestHandle getTopScores(int limit, DreamloCallback<List<LeaderboardEntry>> callback) {
+        RequestHandle handle = new RequestHandle();
+        handle.setTask(scheduler.submit(NetworkScheduler.Lane.LEADERBOARD_READ, () -> {
             try {
-                // Using pipe format for easy parsing
-                String url = BASE_URL + PUBLIC_CODE + "/pipe/" + limit;
-
-                Request request = new Request.Builder()
-                        .url(url)
-                        .build();
-
-                Response response = client.newCall(request).execute();
-                if (response.isSuccessful() && response.body() != null) {
-                    String responseBody = response.body().string();
-                    List<LeaderboardEntry> entries = parsePipeFormat(responseBody);
-                    mainHandler.post(() -> callback.onSuccess(entries));
-                } else {
-                    mainHandler.post(() -> callback.onError("Failed to fetch leaderboard"));
-                }
-                response.close();
+                List<LeaderboardEntry> entries = fetchLeaderboard(limit, handle).toEntries();
+                handle.post(mainHandler, () -> callback.onSuccess(entries));
+            } catch (DreamloException e) {
+                handle.post(mainHandler, () -> callback.onError(e.getMessage()));
+            } catch (IOException e) {
+                handle.post(mainHandler, () -> callback.onError("Network error: " + e.getMessage()));
+            }
+        }));
+        return handle;
+    }
+
+    /**
+     * Get top scores as a columnar snapshot, cheaper to hold and page through for large limits
+     * @param limit Number of top scores to retrieve
+     */
+    public RequestHandle getLeaderboard(int limit, DreamloCallback<LeaderboardSnapshot> callback) {
+        RequestHandle handle = new RequestHandle();
+        handle.setTask(scheduler.submit(NetworkScheduler.Lane.LEADERBOARD_READ, () -> {
+            try {
+                LeaderboardSnapshot snapshot = fetchLeaderboard(limit, handle);
+                handle.post(mainHandler, () -> callback.onSuccess(snapshot));
+            } catch (DreamloException e) {
+                handle.post(mainHandler, () -> callback.onError(e.getMessage()));
             } catch (IOException e) {
-                mainHandler.post(() -> callback.onError("Network error: " + e.getMessage()));
+                handle.post(mainHandler, () -> callback.onError("Network error: " + e.getMessage()));
             }
-        });
+        }));
+        return handle;
     }
 
     /**
-     * Parse Dreamlo pipe-delimited format
-     * Format: name|score|seconds|text|date
+     * Get {@code take} rows starting at row {@code skip} (0-based), for paging through the board
      */
-    private List<LeaderboardEntry> parsePipeFormat(String data) {
-        List<LeaderboardEntry> entries = new ArrayList<>();
-        
-        if (data == null || data.trim().isEmpty()) {
-            return entries;
+    public RequestHandle getPage(int skip, int take, DreamloCallback<LeaderboardSnapshot> callback) {
+        RequestHandle handle = new RequestHandle();
+        handle.setTask(scheduler.submit(NetworkScheduler.Lane.LEADERBOARD_READ, () -> {
+            try {
+                LeaderboardSnapshot snapshot = fetchPage(skip, take, handle);
+                handle.post(mainHandler, () -> callback.onSuccess(snapshot));
+            } catch (DreamloException e) {
+                handle.post(mainHandler, () -> callback.onError(e.getMessage()));
+            } catch (IOException e) {
+                handle.post(mainHandler, () -> callback.onError("Network error: " + e.getMessage()));
+            }
+        }));
+        return handle;
+    }
+
+    /**
+     * Future version of {@link #getTopScores}, cancelling the future cancels the request
+     */
+    public CompletableFuture<List<LeaderboardEntry>> topScores(int limit) {
+        return Futures.fromDreamlo(callback -> getTopScores(limit, callback));
+    }
+
+    /**
+     * Future version of {@link #getLeaderboard}, cancelling the future cancels the request
+     */
+    public CompletableFuture<LeaderboardSnapshot> leaderboard(int limit) {
+        return Futures.fromDreamlo(callback -> getLeaderboard(limit, callback));
+    }
+
+    // Blocking leaderboard request, must run on a scheduler lane
+    private LeaderboardSnapshot fetchLeaderboard(int limit, RequestHandle handle) throws IOException {
+        // Using pipe format for easy parsing
+        long start = System.nanoTime();
+        try {
+            LeaderboardSnapshot snapshot = fetchRows(endpoints.dreamloUrl(PUBLIC_CODE) + "/pipe/" + limit, limit, handle);
+            metrics.recordMillisSince("dreamlo.top.ms", start);
+            return snapshot;
+        } catch (IOException e) {
+            recordFailure("dreamlo.top", handle);
+            throw e;
+        }
+    }
+
+    /**
+     * Blocking page request, for callers running on their own background thread
+     */
+    LeaderboardSnapshot fetchPage(int skip, int take, RequestHandle handle) throws IOException {
+        long start = System.nanoTime();
+        try {
+            LeaderboardSnapshot page = fetchRows(endpoints.dreamloUrl(PUBLIC_CODE) + "/pipe/" + skip + "/" + take, take, handle);
+            metrics.recordMillisSince("dreamlo.page.ms", start);
+            return page;
+        } catch (IOException e) {
+            recordFailure("dreamlo.page", handle);
+            throw e;
         }
+    }
 
-        String[] lines = data.split("\n");
-        for (String line : lines) {
-            if (line.trim().isEmpty()) continue;
-            
-            String[] parts = line.split("\\|");
-            if (parts.length >= 3) {
-                try {
-                    String name = parts.length > 0 ? parts[0] : "Unknown";
-                    int score = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
-                    int seconds = parts.length > 2 ? Integer.parseInt(parts[2]) : 0;
-                    String text = parts.length > 3 ? parts[3] : "";
-                    String date = parts.length > 4 ? parts[4] : "";
-
-                    entries.add(new LeaderboardEntry(name, score, seconds, text, date));
-                } catch (NumberFormatException e) {
-                    // Skip invalid entries
+    /**
+     * Blocking lookup of one player's row, null if they have no score yet
+     */
+    LeaderboardEntry fetchPlayer(String playerName, RequestHandle handle) throws IOException {
+        LeaderboardSnapshot rows = fetchRows(endpoints.dreamloUrl(PUBLIC_CODE) + "/pipe-get/" + cleanName(playerName), 1, handle);
+        return rows.isEmpty() ? null : rows.getEntry(0);
+    }
+
+    private LeaderboardSnapshot fetchRows(String url, int expectedRows, RequestHandle handle) throws IOException {
+        Request request = new Request.Builder()
+                .url(url)
+                .build();
+
+        try (Response response = breaker.execute(handle.track(client.get().newCall(request)), handle)) {
+            ResponseBody body = response.body();
+            if (response.isSuccessful() && body != null) {
+                LeaderboardSnapshot.Builder builder = new LeaderboardSnapshot.Builder(expectedRows);
+                new PipeLeaderboardParser().parse(body.byteStream(), builder);
+                return builder.build();
+            } else {
+                throw new DreamloException("Failed to fetch leaderboard");
+            }
+        }
+    }
+
+    // Requests the caller cancelled are not failures
+    private void recordFailure(String metric, RequestHandle handle) {
+        if (!handle.isCancelled()) {
+            metrics.increment(metric + ".errors");
+        }
+    }
+
+    // A new score makes cached leaderboard responses stale
+    private void evictCachedLeaderboards() {
+        Cache cache = client.get().cache();
+        if (cache == null) return;
+
+        try {
+            Iterator<String> urls = cache.urls();
+            while (urls.hasNext()) {
+                if (urls.next().contains("/pipe/")) {
+                    urls.remove();
                 }
             }
+        } catch (IOException e) {
+            // Worst case the leaderboard is a few seconds old
         }
+    }
 
-        return entries;
+    // Health of Dreamlo, leaderboard reads and score submissions fail fast while it is down
+    public CircuitBreaker getCircuitBreaker() {
+        return breaker;
     }
 
-    public void shutdown() {
-        executorService.shutdown();
+    // Error reported by Dreamlo itself rather than the network
+    static class DreamloException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        DreamloException(String message) {
+            super(message);
+        }
     }
 }
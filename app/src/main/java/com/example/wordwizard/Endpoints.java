@@ -0,0 +1,48 @@
+package com.example.wordwizard;
+
+/**
+ * Base URLs of the remote services. Production by default, tests and benchmarks point them at a
+ * local stand-in server.
+ */
+public final class Endpoints {
+
+    public static final Endpoints PRODUCTION = new Endpoints(
+            "https://random-word-api.herokuapp.com",
+            "https://api.api-ninjas.com",
+            "http://dreamlo.com");
+
+    private final String wordApi;
+    private final String thesaurusApi;
+    private final String dreamlo;
+
+    /**
+     * @param wordApi Base URL of the random word API, without a trailing slash
+     * @param thesaurusApi Base URL of the thesaurus API
+     * @param dreamlo Base URL of Dreamlo
+     */
+    public Endpoints(String wordApi, String thesaurusApi, String dreamlo) {
+        this.wordApi = wordApi;
+        this.thesaurusApi = thesaurusApi;
+        this.dreamlo = dreamlo;
+    }
+
+    /**
+     * All services on one server, e.g. "http://127.0.0.1:8080"
+     */
+    public static Endpoints local(String baseUrl) {
+        return new Endpoints(baseUrl, baseUrl, baseUrl);
+    }
+
+    String randomWordUrl() {
+        return wordApi + "/word";
+    }
+
+    String thesaurusUrl(String word) {
+        return thesaurusApi + "/v1/thesaurus?word=" + word;
+    }
+
+    // Leaderboard URL for a Dreamlo public or private code, paths like /pipe/10 go after it
+    String dreamloUrl(String code) {
+        return dreamlo + "/lb/" + code;
+    }
+}
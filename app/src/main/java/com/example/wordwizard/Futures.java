@@ -0,0 +1,215 @@
+package com.example.wordwizard;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * CompletableFuture versions of the callback APIs, plus the combinators the app needs:
+ * timeouts, racing sources and fan-out/fan-in.
+ * Futures made from callbacks complete on the main thread. Completing or cancelling such a
+ * future early (e.g. a timeout or a lost race) cancels the request behind it.
+ */
+public final class Futures {
+
+    private static ScheduledExecutorService timer;
+    private static Executor mainThread;
+
+    private Futures() {
+    }
+
+    /**
+     * Adapt an ApiService-style call, e.g. {@code Futures.fromApi(cb -> api.getSynonyms(word, cb))}
+     */
+    public static <T> CompletableFuture<T> fromApi(Function<ApiService.ApiCallback<T>, RequestHandle> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        RequestHandle handle = call.apply(new ApiService.ApiCallback<T>() {
+            @Override
+            public void onSuccess(T result) {
+                future.complete(result);
+            }
+
+            @Override
+            public void onError(String error) {
+                future.completeExceptionally(new IOException(error));
+            }
+        });
+        // No-op once the request finished, aborts it when the future is given up on
+        future.whenComplete((result, error) -> handle.cancel());
+        return future;
+    }
+
+    /**
+     * Adapt a DreamloService-style call
+     */
+    public static <T> CompletableFuture<T> fromDreamlo(Function<DreamloService.DreamloCallback<T>, RequestHandle> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        RequestHandle handle = call.apply(new DreamloService.DreamloCallback<T>() {
+            @Override
+            public void onSuccess(T result) {
+                future.complete(result);
+            }
+
+            @Override
+            public void onError(String error) {
+                future.completeExceptionally(new IOException(error));
+            }
+        });
+        future.whenComplete((result, error) -> handle.cancel());
+        return future;
+    }
+
+    /**
+     * Fail the future with a TimeoutException if it hasn't completed within the timeout.
+     * Stages that run because of the timeout run on the timer thread, use
+     * {@link #mainThread()} to get back to the UI.
+     */
+    public static <T> CompletableFuture<T> withTimeout(CompletableFuture<T> future, long timeout, TimeUnit unit) {
+        if (future.isDone()) return future;
+        timer().schedule(() -> future.completeExceptionally(
+                new TimeoutException("No result after " + unit.toMillis(timeout) + " ms")), timeout, unit);
+        return future;
+    }
+
+    /**
+     * Result of {@code first}, or of the future made by {@code fallback} if first fails.
+     * Cancelling the result cancels whichever of the two is running.
+     */
+    public static <T> CompletableFuture<T> orElse(CompletableFuture<T> first, Supplier<CompletableFuture<T>> fallback) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<T>> running = new AtomicReference<>(first);
+        first.whenComplete((value, error) -> {
+            if (error == null) {
+                result.complete(value);
+                return;
+            }
+            if (result.isDone()) return;
+            CompletableFuture<T> second = fallback.get();
+            running.set(second);
+            second.whenComplete((secondValue, secondError) -> {
+                if (secondError == null) {
+                    result.complete(secondValue);
+                } else {
+                    result.completeExceptionally(unwrap(secondError));
+                }
+            });
+            // Cancelled while the fallback was being started
+            if (result.isDone()) second.cancel(false);
+        });
+        result.whenComplete((value, error) -> running.get().cancel(false));
+        return result;
+    }
+
+    /**
+     * The first future to succeed wins and the others are cancelled.
+     * Fails with the last error if all of them fail.
+     */
+    public static <T> CompletableFuture<T> firstSuccessful(List<CompletableFuture<T>> futures) {
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        if (futures.isEmpty()) {
+            winner.completeExceptionally(new IllegalArgumentException("Nothing to race"));
+            return winner;
+        }
+
+        AtomicInteger remaining = new AtomicInteger(futures.size());
+        for (CompletableFuture<T> future : futures) {
+            future.whenComplete((result, error) -> {
+                if (error == null) {
+                    winner.complete(result);
+                } else if (remaining.decrementAndGet() == 0) {
+                    winner.completeExceptionally(unwrap(error));
+                }
+            });
+        }
+        // Losers, and all of them if the race itself is cancelled or timed out
+        winner.whenComplete((result, error) -> {
+            for (CompletableFuture<T> future : futures) {
+                future.cancel(false);
+            }
+        });
+        return winner;
+    }
+
+    /**
+     * Wait for all futures and collect their results in order.
+     * Fails as soon as one of them fails, cancelling the rest.
+     */
+    public static <T> CompletableFuture<List<T>> allOf(List<CompletableFuture<T>> futures) {
+        CompletableFuture<List<T>> all = CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> {
+                    List<T> results = new ArrayList<>(futures.size());
+                    for (CompletableFuture<T> future : futures) {
+                        results.add(future.join());
+                    }
+                    return results;
+                });
+        for (CompletableFuture<T> future : futures) {
+            future.whenComplete((result, error) -> {
+                if (error != null) {
+                    all.completeExceptionally(unwrap(error));
+                }
+            });
+        }
+        all.whenComplete((result, error) -> {
+            if (error != null) {
+                for (CompletableFuture<T> future : futures) {
+                    future.cancel(false);
+                }
+            }
+        });
+        return all;
+    }
+
+    /**
+     * Executor that runs stages on the main thread
+     */
+    public static synchronized Executor mainThread() {
+        if (mainThread == null) {
+            Handler handler = new Handler(Looper.getMainLooper());
+            mainThread = handler::post;
+        }
+        return mainThread;
+    }
+
+    /**
+     * The cause of a failed stage without CompletionException wrappers
+     */
+    public static Throwable unwrap(Throwable error) {
+        while (error instanceof java.util.concurrent.CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    /**
+     * Run a short task on the shared timer thread after a delay
+     */
+    static ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+        return timer().schedule(task, delay, unit);
+    }
+
+    private static synchronized ScheduledExecutorService timer() {
+        if (timer == null) {
+            timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "FutureTimeouts");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return timer;
+    }
+}
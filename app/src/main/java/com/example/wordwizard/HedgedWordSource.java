@@ -0,0 +1,142 @@
+package com.example.wordwizard;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Word source that hedges a slow primary with a second source.
+ * When the primary hasn't answered within its recent p90 latency (or fails), the same lookup goes
+ * to the hedge source, e.g. the offline dictionary or the primary again. The first word wins and the
+ * other request is cancelled, so a cold API server only costs the hedge delay instead of its full
+ * response time.
+ */
+public class HedgedWordSource implements WordSource {
+
+    // Primary latencies per window (the percentile covers the last one to two), and how many are
+    // needed before trusting it
+    private static final int LATENCY_SAMPLES = 50;
+    private static final int MIN_SAMPLES = 5;
+    private static final double HEDGE_PERCENTILE = 0.9;
+    // Hedge delay before enough samples are in, and its bounds afterwards
+    private static final long DEFAULT_HEDGE_DELAY_MS = 1500;
+    private static final long MIN_HEDGE_DELAY_MS = 200;
+    private static final long MAX_HEDGE_DELAY_MS = 5000;
+
+    private final WordSource primary;
+    private final WordSource hedge;
+    private final WindowedHistogram latencies = new WindowedHistogram();
+    private final LogLinearHistogram latencyMetric = MetricsRegistry.getDefault().histogram("hedge.primary.ms");
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicInteger hedgeCount = new AtomicInteger();
+    private final AtomicInteger hedgeWinCount = new AtomicInteger();
+
+    public HedgedWordSource(WordSource primary, WordSource hedge) {
+        this.primary = primary;
+        this.hedge = hedge;
+    }
+
+    @Override
+    public RequestHandle getRandomWord(ApiService.ApiCallback<String> callback) {
+        return deliver(randomWord(1), callback);
+    }
+
+    @Override
+    public RequestHandle getRandomWordWithLength(int minLength, ApiService.ApiCallback<String> callback) {
+        return deliver(randomWord(minLength), callback);
+    }
+
+    @Override
+    public CompletableFuture<String> randomWord(int minLength) {
+        requestCount.incrementAndGet();
+        long start = System.nanoTime();
+        CompletableFuture<String> first = primary.randomWord(minLength);
+        CompletableFuture<String> second = new CompletableFuture<>();
+        AtomicBoolean hedged = new AtomicBoolean(false);
+
+        Runnable startHedge = () -> {
+            if (second.isDone() || !hedged.compareAndSet(false, true)) return;
+            hedgeCount.incrementAndGet();
+            CompletableFuture<String> hedgeWord = hedge.randomWord(minLength);
+            hedgeWord.whenComplete((word, error) -> {
+                if (error == null) {
+                    second.complete(word);
+                } else {
+                    second.completeExceptionally(Futures.unwrap(error));
+                }
+            });
+            second.whenComplete((word, error) -> hedgeWord.cancel(false));
+        };
+        ScheduledFuture<?> timer = Futures.schedule(startHedge, getHedgeDelayMillis(), TimeUnit.MILLISECONDS);
+        second.whenComplete((word, error) -> timer.cancel(false));
+
+        first.whenComplete((word, error) -> {
+            // Only answers are sampled. A primary cancelled after losing is cut off at about the
+            // hedge delay, so it could only ever pull the percentile down, never up as the server slows
+            if (error == null) {
+                recordLatency(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            } else if (!first.isCancelled()) {
+                // No point waiting for the hedge delay once the primary has failed
+                startHedge.run();
+            }
+        });
+
+        CompletableFuture<String> winner = Futures.firstSuccessful(List.of(first, second));
+        winner.whenComplete((word, error) -> {
+            // The primary has no word of its own, so the hedge's word won
+            if (error == null && (!first.isDone() || first.isCompletedExceptionally())) {
+                hedgeWinCount.incrementAndGet();
+            }
+        });
+        return winner;
+    }
+
+    // Adapt the future to the callback contract: main thread, and nothing after cancel
+    private RequestHandle deliver(CompletableFuture<String> word, ApiService.ApiCallback<String> callback) {
+        RequestHandle handle = new RequestHandle();
+        handle.setTask(word);
+        word.whenCompleteAsync((result, error) -> {
+            if (handle.isCancelled()) return;
+            if (error == null) {
+                callback.onSuccess(result);
+            } else {
+                callback.onError(Futures.unwrap(error).getMessage());
+            }
+        }, Futures.mainThread());
+        return handle;
+    }
+
+    private synchronized void recordLatency(long millis) {
+        if (latencies.getCurrentCount() == LATENCY_SAMPLES) {
+            latencies.rotate();
+        }
+        latencies.record(millis);
+        latencyMetric.record(millis);
+    }
+
+    /**
+     * How long the primary gets before the hedge request goes out: the p90 of its recent latencies
+     */
+    public synchronized long getHedgeDelayMillis() {
+        if (latencies.getCount() < MIN_SAMPLES) return DEFAULT_HEDGE_DELAY_MS;
+
+        long delay = latencies.getPercentile(HEDGE_PERCENTILE);
+        return Math.max(MIN_HEDGE_DELAY_MS, Math.min(MAX_HEDGE_DELAY_MS, delay));
+    }
+
+    public int getRequestCount() {
+        return requestCount.get();
+    }
+
+    // Requests that sent a hedge, and those the hedge answered first
+    public int getHedgeCount() {
+        return hedgeCount.get();
+    }
+
+    public int getHedgeWinCount() {
+        return hedgeWinCount.get();
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.wordwizard;
+
+import android.content.Context;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Cache;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Shared OkHttp client for ApiService and DreamloService, so both use one connection pool,
+ * one dispatcher and one response cache.
+ */
+public final class HttpClients {
+
+    private static final int CONNECT_TIMEOUT_SECONDS = 10;
+    private static final int READ_TIMEOUT_SECONDS = 15;
+    private static final int WRITE_TIMEOUT_SECONDS = 15;
+
+    // Pool sizing defaults
+    public static final int DEFAULT_MAX_IDLE_CONNECTIONS = 4;
+    public static final int DEFAULT_KEEP_ALIVE_MINUTES = 5;
+    public static final int DEFAULT_MAX_REQUESTS_PER_HOST = 4;
+
+    private static final long CACHE_SIZE_BYTES = 2 * 1024 * 1024;
+
+    // How long GET responses may be reused when the server does not say
+    private static final int THESAURUS_MAX_AGE_SECONDS = 24 * 60 * 60;
+    private static final int LEADERBOARD_MAX_AGE_SECONDS = 30;
+
+    private static volatile OkHttpClient shared;
+    // A thread is building the shared client, the others wait for it
+    private static boolean building;
+    private static boolean prewarmStarted;
+
+    private HttpClients() {
+    }
+
+    /**
+     * The client shared by all services, created on first use. Building it takes tens of
+     * milliseconds, so call this from a background thread; a caller arriving while another thread
+     * builds it waits for that client rather than building a second one.
+     */
+    public static OkHttpClient get(Context context) {
+        OkHttpClient client = shared;
+        if (client != null) {
+            return client;
+        }
+        synchronized (HttpClients.class) {
+            boolean interrupted = false;
+            while (building) {
+                try {
+                    HttpClients.class.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            if (shared != null) {
+                return shared;
+            }
+            building = true;
+        }
+        // Built outside the lock, only the waiting callers block on it
+        try {
+            client = create(new File(context.getCacheDir(), "http"),
+                    DEFAULT_MAX_IDLE_CONNECTIONS, DEFAULT_KEEP_ALIVE_MINUTES, DEFAULT_MAX_REQUESTS_PER_HOST);
+            return client;
+        } finally {
+            synchronized (HttpClients.class) {
+                // Left null when the build failed, the next caller tries again
+                shared = client;
+                building = false;
+                HttpClients.class.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Build the shared client and connect to the url on a background thread, so the first real
+     * request finds it ready with DNS resolved and a TLS connection in the pool. Once per process.
+     */
+    public static void prewarm(Context context, String url) {
+        synchronized (HttpClients.class) {
+            if (prewarmStarted) return;
+            prewarmStarted = true;
+        }
+        Context appContext = context.getApplicationContext();
+        Thread thread = new Thread(() -> {
+            Request request = new Request.Builder()
+                    .url(url)
+                    .head()
+                    .build();
+            try {
+                // Only the connection is wanted
+                get(appContext).newCall(request).execute().close();
+            } catch (IOException e) {
+                // Offline, the first real request connects itself
+            }
+        }, "HttpPrewarm");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Build a client with the app's timeouts, caching and latency tracking
+     * @param cacheDir Directory for the response cache, or null for no cache
+     */
+    public static OkHttpClient create(File cacheDir, int maxIdleConnections, int keepAliveMinutes,
+                                      int maxRequestsPerHost) {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .connectTimeout(CONNECT_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .readTimeout(READ_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .writeTimeout(WRITE_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAliveMinutes, TimeUnit.MINUTES))
+                .dispatcher(dispatcher)
+                .retryOnConnectionFailure(true)
+                .addInterceptor(HttpClients::recordLatency)
+                .addNetworkInterceptor(HttpClients::applyCachePolicy);
+        if (cacheDir != null) {
+            builder.cache(new Cache(cacheDir, CACHE_SIZE_BYTES));
+        }
+        return builder.build();
+    }
+
+    // Time every call per endpoint, including cache hits, e.g. "http.dreamlo.com/lb.ms"
+    private static Response recordLatency(Interceptor.Chain chain) throws IOException {
+        Request request = chain.request();
+        long start = System.nanoTime();
+        try {
+            return chain.proceed(request);
+        } finally {
+            MetricsRegistry.getDefault().recordMillisSince("http." + endpointName(request) + ".ms", start);
+        }
+    }
+
+    // Let idempotent lookups be served from the cache when the server sends no caching headers
+    private static Response applyCachePolicy(Interceptor.Chain chain) throws IOException {
+        Request request = chain.request();
+        Response response = chain.proceed(request);
+        if (!"GET".equals(request.method()) || response.header("Cache-Control") != null) {
+            return response;
+        }
+
+        int maxAge = maxAgeFor(request);
+        if (maxAge <= 0) {
+            return response;
+        }
+        return response.newBuilder()
+                .removeHeader("Pragma")
+                .header("Cache-Control", "public, max-age=" + maxAge)
+                .build();
+    }
+
+    private static int maxAgeFor(Request request) {
+        String path = request.url().encodedPath();
+        if (path.startsWith("/v1/thesaurus")) {
+            return THESAURUS_MAX_AGE_SECONDS;
+        }
+        // Only leaderboard reads, score submissions (/add/) must always reach Dreamlo
+        if (path.startsWith("/lb/") && path.contains("/pipe/")) {
+            return LEADERBOARD_MAX_AGE_SECONDS;
+        }
+        // Random words must never be reused
+        return 0;
+    }
+
+    // Host plus first path segment, e.g. "dreamlo.com/lb"
+    private static String endpointName(Request request) {
+        String path = request.url().encodedPath();
+        int end = path.indexOf('/', 1);
+        return request.url().host() + (end > 0 ? path.substring(0, end) : path);
+    }
+}
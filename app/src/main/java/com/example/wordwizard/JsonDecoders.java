@@ -0,0 +1,129 @@
+package com.example.wordwizard;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import okio.BufferedSource;
+
+/**
+ * Streaming decoders for the API responses.
+ * The decoders read straight from the response body,
+ * without copying it into a String or going through reflection.
+ */
+final class JsonDecoders {
+
+    /**
+     * Reads one value from the JSON stream
+     */
+    interface Decoder<T> {
+        T read(JsonReader reader) throws IOException;
+    }
+
+    // ["word", "word", ...]
+    static final Decoder<List<String>> WORD_LIST = JsonDecoders::readStringArray;
+
+    // {"word": "...", "synonyms": [...], "antonyms": [...]}, only the synonyms are kept
+    static final Decoder<List<String>> THESAURUS_SYNONYMS = JsonDecoders::readSynonyms;
+
+    private JsonDecoders() {
+    }
+
+    /**
+     * Decode a whole body with one of the decoders above
+     * @throws IOException if the body can't be read or is not the expected JSON
+     */
+    static <T> T decode(Decoder<T> decoder, BufferedSource body) throws IOException {
+        try (JsonReader reader = new JsonReader(new Utf8SourceReader(body))) {
+            return decoder.read(reader);
+        } catch (JsonParseException | IllegalStateException e) {
+            throw new IOException("Malformed response", e);
+        }
+    }
+
+    /**
+     * Decodes UTF-8 straight from the response buffer. Unlike ResponseBody.charStream()
+     * this does not allocate an 8 KB byte buffer and a charset decoder for every response.
+     */
+    private static class Utf8SourceReader extends Reader {
+        private final BufferedSource source;
+        // Second half of a surrogate pair that did not fit in the last read
+        private int pendingLowSurrogate = -1;
+
+        Utf8SourceReader(BufferedSource source) {
+            this.source = source;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            int count = 0;
+            if (pendingLowSurrogate >= 0 && length > 0) {
+                buffer[offset] = (char) pendingLowSurrogate;
+                pendingLowSurrogate = -1;
+                count++;
+            }
+            while (count < length && !source.exhausted()) {
+                int codePoint = source.readUtf8CodePoint();
+                if (Character.isBmpCodePoint(codePoint)) {
+                    buffer[offset + count++] = (char) codePoint;
+                } else {
+                    buffer[offset + count++] = Character.highSurrogate(codePoint);
+                    if (count < length) {
+                        buffer[offset + count++] = Character.lowSurrogate(codePoint);
+                    } else {
+                        pendingLowSurrogate = Character.lowSurrogate(codePoint);
+                    }
+                }
+            }
+            return count == 0 && length > 0 ? -1 : count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            source.close();
+        }
+    }
+
+    private static List<String> readSynonyms(JsonReader reader) throws IOException {
+        List<String> synonyms = new ArrayList<>();
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return synonyms;
+        }
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("synonyms".equals(reader.nextName())) {
+                synonyms = readStringArray(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return synonyms;
+    }
+
+    private static List<String> readStringArray(JsonReader reader) throws IOException {
+        List<String> values = new ArrayList<>();
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return values;
+        }
+
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() == JsonToken.STRING) {
+                values.add(reader.nextString());
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endArray();
+        return values;
+    }
+}
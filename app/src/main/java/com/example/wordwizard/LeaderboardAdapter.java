@@ -0,0 +1,148 @@
+package com.example.wordwizard;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * RecyclerView adapter over a {@link LeaderboardSnapshot}.
+ * Only the visible rows have views, and binding a row just sets four texts and a background
+ * color resolved once up front. A new snapshot is diffed against the shown one off the main
+ * thread, so a refresh only rebinds the rows that changed.
+ * Call from the main thread.
+ */
+public class LeaderboardAdapter extends RecyclerView.Adapter<LeaderboardAdapter.RowHolder> {
+
+    private final LayoutInflater inflater;
+    private final int evenRowColor;
+    private final int oddRowColor;
+    private final ExecutorService diffExecutor;
+    private final Handler mainHandler;
+
+    private LeaderboardSnapshot snapshot = LeaderboardSnapshot.empty();
+    // Bumped on every submit so a slow diff can't overwrite a newer snapshot
+    private int generation = 0;
+
+    public LeaderboardAdapter(Context context) {
+        this.inflater = LayoutInflater.from(context);
+        this.evenRowColor = context.getColor(R.color.row_alternate);
+        this.oddRowColor = context.getColor(R.color.white);
+        this.diffExecutor = Executors.newSingleThreadExecutor();
+        this.mainHandler = new Handler(Looper.getMainLooper());
+    }
+
+    /**
+     * Show a new snapshot, updating only the rows that differ from the current one
+     */
+    public void submit(LeaderboardSnapshot newSnapshot) {
+        if (diffExecutor.isShutdown()) return;
+
+        LeaderboardSnapshot oldSnapshot = snapshot;
+        int submitted = ++generation;
+        if (oldSnapshot.isEmpty() || newSnapshot.isEmpty()) {
+            snapshot = newSnapshot;
+            notifyDataSetChanged();
+            return;
+        }
+
+        diffExecutor.execute(() -> {
+            DiffUtil.DiffResult diff = DiffUtil.calculateDiff(new SnapshotDiff(oldSnapshot, newSnapshot), false);
+            mainHandler.post(() -> {
+                if (submitted != generation) return;
+                snapshot = newSnapshot;
+                diff.dispatchUpdatesTo(this);
+            });
+        });
+    }
+
+    public LeaderboardSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public int getItemCount() {
+        return snapshot.size();
+    }
+
+    @Override
+    public RowHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        return new RowHolder(inflater.inflate(R.layout.item_leaderboard_row, parent, false));
+    }
+
+    @Override
+    public void onBindViewHolder(RowHolder holder, int position) {
+        holder.itemView.setBackgroundColor(position % 2 == 0 ? evenRowColor : oddRowColor);
+        holder.rankView.setText(Integer.toString(position + 1));
+        holder.nameView.setText(snapshot.getName(position));
+        holder.scoreView.setText(Integer.toString(snapshot.getScore(position)));
+        holder.timeView.setText(snapshot.getFormattedTime(position));
+    }
+
+    /**
+     * Stop the diff thread, e.g. when the dialog is dismissed
+     */
+    public void shutdown() {
+        diffExecutor.shutdownNow();
+    }
+
+    static class RowHolder extends RecyclerView.ViewHolder {
+        final TextView rankView;
+        final TextView nameView;
+        final TextView scoreView;
+        final TextView timeView;
+
+        RowHolder(View itemView) {
+            super(itemView);
+            rankView = itemView.findViewById(R.id.rankTextView);
+            nameView = itemView.findViewById(R.id.nameTextView);
+            scoreView = itemView.findViewById(R.id.scoreTextView);
+            timeView = itemView.findViewById(R.id.timeTextView);
+        }
+    }
+
+    /**
+     * Rows are the same player when the names match. A row whose position moved also counts as
+     * changed, since its rank and background depend on the position.
+     */
+    static class SnapshotDiff extends DiffUtil.Callback {
+        private final LeaderboardSnapshot oldSnapshot;
+        private final LeaderboardSnapshot newSnapshot;
+
+        SnapshotDiff(LeaderboardSnapshot oldSnapshot, LeaderboardSnapshot newSnapshot) {
+            this.oldSnapshot = oldSnapshot;
+            this.newSnapshot = newSnapshot;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return oldSnapshot.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return newSnapshot.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldPosition, int newPosition) {
+            return oldSnapshot.getName(oldPosition).equals(newSnapshot.getName(newPosition));
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldPosition, int newPosition) {
+            return oldPosition == newPosition
+                    && oldSnapshot.getScore(oldPosition) == newSnapshot.getScore(newPosition)
+                    && oldSnapshot.getSeconds(oldPosition) == newSnapshot.getSeconds(newPosition);
+        }
+    }
+}
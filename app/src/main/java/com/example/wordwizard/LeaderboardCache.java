@@ -0,0 +1,199 @@
+package com.example.wordwizard;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Stale-while-revalidate leaderboard: the last known snapshot (kept on disk between launches)
+ * is returned right away, then refreshed from Dreamlo in the background.
+ * Refreshes requested while one is running share it, and listeners only hear about a
+ * refresh when the leaderboard actually changed.
+ * Call from the main thread, listeners are notified on the main thread.
+ */
+public class LeaderboardCache {
+
+    // Don't ask Dreamlo again when the last refresh is this recent
+    private static final long MIN_REFRESH_INTERVAL_MS = 15_000;
+
+    public interface Listener {
+        // Called with the cached snapshot and again whenever a refresh brings new data
+        void onLeaderboard(LeaderboardSnapshot snapshot);
+        // The refresh failed, the last snapshot (if any) stays valid
+        void onRefreshError(String error);
+    }
+
+    private final DreamloService dreamloService;
+    private final File file;
+    private final int limit;
+    private final ExecutorService executorService;
+    private final Handler mainHandler;
+
+    private LeaderboardSnapshot current;
+    private boolean diskLoaded = false;
+    // A refresh was asked for before the disk copy was read
+    private boolean refreshRequested = false;
+    private boolean refreshing = false;
+    private long lastRefreshTime = 0;
+    private RequestHandle refreshRequest;
+    private final List<Listener> waiting = new ArrayList<>();
+
+    public LeaderboardCache(DreamloService dreamloService, File file, int limit) {
+        this.dreamloService = dreamloService;
+        this.file = file;
+        this.limit = limit;
+        this.executorService = Executors.newSingleThreadExecutor();
+        this.mainHandler = new Handler(Looper.getMainLooper());
+
+        // Read the last snapshot early so the first dialog has it
+        executorService.execute(() -> {
+            LeaderboardSnapshot loaded = readFromDisk();
+            mainHandler.post(() -> onDiskLoaded(loaded));
+        });
+    }
+
+    /**
+     * Deliver the cached leaderboard now (if there is one) and refresh it in the background
+     */
+    public void get(Listener listener) {
+        if (current != null) {
+            listener.onLeaderboard(current);
+        }
+        if (!waiting.contains(listener)) {
+            waiting.add(listener);
+        }
+        refresh();
+    }
+
+    /**
+     * Stop notifying a listener, e.g. when its dialog is dismissed
+     */
+    public void removeListener(Listener listener) {
+        waiting.remove(listener);
+    }
+
+    /**
+     * Refresh in the background without waiting for the result, so the next get() has fresh rows
+     */
+    public void prefetch() {
+        refresh();
+    }
+
+    public LeaderboardSnapshot getCurrent() {
+        return current;
+    }
+
+    private void refresh() {
+        if (!diskLoaded) {
+            // Started once the disk copy is read
+            refreshRequested = true;
+            return;
+        }
+        if (refreshing) {
+            // Finished by the running refresh
+            return;
+        }
+        if (current != null && System.currentTimeMillis() - lastRefreshTime < MIN_REFRESH_INTERVAL_MS) {
+            waiting.clear();
+            return;
+        }
+
+        refreshing = true;
+        refreshRequest = dreamloService.getLeaderboard(limit, new DreamloService.DreamloCallback<LeaderboardSnapshot>() {
+            @Override
+            public void onSuccess(LeaderboardSnapshot snapshot) {
+                refreshing = false;
+                lastRefreshTime = System.currentTimeMillis();
+                List<Listener> listeners = takeWaiting();
+                if (snapshot.contentEquals(current)) {
+                    return;
+                }
+
+                current = snapshot;
+                executorService.execute(() -> writeToDisk(snapshot));
+                for (Listener listener : listeners) {
+                    listener.onLeaderboard(snapshot);
+                }
+            }
+
+            @Override
+            public void onError(String error) {
+                refreshing = false;
+                for (Listener listener : takeWaiting()) {
+                    listener.onRefreshError(error);
+                }
+            }
+        });
+    }
+
+    /**
+     * Forget the refresh time so the next get() goes to Dreamlo, e.g. after submitting a score
+     */
+    public void invalidate() {
+        lastRefreshTime = 0;
+    }
+
+    private List<Listener> takeWaiting() {
+        List<Listener> listeners = new ArrayList<>(waiting);
+        waiting.clear();
+        return listeners;
+    }
+
+    // Package-private so tests can stand in for the main looper
+    void onDiskLoaded(LeaderboardSnapshot loaded) {
+        diskLoaded = true;
+        if (loaded != null && current == null) {
+            current = loaded;
+            for (Listener listener : waiting) {
+                listener.onLeaderboard(loaded);
+            }
+        }
+        if (refreshRequested || !waiting.isEmpty()) {
+            refreshRequested = false;
+            refresh();
+        }
+    }
+
+    private LeaderboardSnapshot readFromDisk() {
+        if (!file.exists()) return null;
+
+        try (InputStream input = new FileInputStream(file)) {
+            LeaderboardSnapshot.Builder builder = new LeaderboardSnapshot.Builder(limit);
+            new PipeLeaderboardParser().parse(input, builder);
+            return builder.build();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void writeToDisk(LeaderboardSnapshot snapshot) {
+        File temp = new File(file.getPath() + ".tmp");
+        try (OutputStream output = new BufferedOutputStream(new FileOutputStream(temp))) {
+            snapshot.writeTo(output);
+        } catch (IOException e) {
+            temp.delete();
+            return;
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+        }
+    }
+
+    public void shutdown() {
+        if (refreshRequest != null) {
+            refreshRequest.cancel();
+        }
+        executorService.shutdown();
+    }
+}
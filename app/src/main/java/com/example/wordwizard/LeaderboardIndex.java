@@ -0,0 +1,240 @@
+package com.example.wordwizard;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Local, partially loaded copy of the leaderboard, ordered by score like Dreamlo's.
+ * Holds the pages fetched so far plus the scores of single rows probed while looking for a
+ * player, and uses both to narrow down where a score ranks without downloading the board.
+ * Rows are 0-based. Not thread safe.
+ */
+public class LeaderboardIndex {
+
+    private final int pageSize;
+    private final TreeMap<Integer, LeaderboardSnapshot> pages = new TreeMap<>();
+    // Score of individual rows known from probes and from the edges of loaded pages
+    private final TreeMap<Integer, Integer> knownScores = new TreeMap<>();
+    // First row known not to exist, or -1 while the end of the board hasn't been seen
+    private int endRow = -1;
+    private LeaderboardSnapshot prefix;
+    // The prefix is appended to page by page as more pages load, instead of copied whole each time
+    private LeaderboardSnapshot.Builder prefixRows;
+    private int prefixRowPages;
+
+    public LeaderboardIndex(int pageSize) {
+        this.pageSize = pageSize;
+        resetPrefixRows();
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public int pageOf(int row) {
+        return row / pageSize;
+    }
+
+    public boolean hasPage(int page) {
+        return pages.containsKey(page);
+    }
+
+    /**
+     * A loaded page, or an empty snapshot if it isn't loaded
+     */
+    public LeaderboardSnapshot getPage(int page) {
+        LeaderboardSnapshot rows = pages.get(page);
+        return rows == null ? LeaderboardSnapshot.empty() : rows;
+    }
+
+    /**
+     * Number of rows on the board, or -1 if the last page hasn't been loaded or probed yet
+     */
+    public int knownSize() {
+        return endRow;
+    }
+
+    /**
+     * Store a fetched page. A short page marks the end of the board.
+     * If the first page changed, everything else is dropped since the ranks below moved.
+     */
+    public void putPage(int page, LeaderboardSnapshot rows) {
+        LeaderboardSnapshot previous = pages.get(page);
+        if (page == 0 && previous != null && !previous.contentEquals(rows)) {
+            clear();
+        }
+        pages.put(page, rows);
+        prefix = null;
+        if (page < prefixRowPages) {
+            // A page already in the prefix changed
+            resetPrefixRows();
+        }
+
+        int first = page * pageSize;
+        if (!rows.isEmpty()) {
+            knownScores.put(first, rows.getScore(0));
+            knownScores.put(first + rows.size() - 1, rows.getScore(rows.size() - 1));
+        }
+        if (rows.size() < pageSize) {
+            setEnd(first + rows.size());
+        }
+    }
+
+    /**
+     * Store the result of fetching the single row {@code row}, empty when it is past the end
+     */
+    public void putProbe(int row, LeaderboardSnapshot rows) {
+        if (rows.isEmpty()) {
+            setEnd(row);
+        } else {
+            knownScores.put(row, rows.getScore(0));
+        }
+    }
+
+    private void setEnd(int row) {
+        if (endRow < 0 || row < endRow) {
+            endRow = row;
+            pages.tailMap(pageOf(row), false).clear();
+            knownScores.tailMap(row, true).clear();
+        }
+    }
+
+    /**
+     * The row to fetch next while looking for the first row scoring {@code score} or less,
+     * or -1 once {@link #lowerBound(int)} can answer without more requests.
+     * Probes grow exponentially until the row is bracketed, then halve the bracket.
+     */
+    public int nextProbe(int score) {
+        int low = lowBracket(score);
+        int high = highBracket(score);
+        if (high >= 0 && high <= low) return -1;
+
+        // Inside a loaded page the answer is found by scanning it
+        if (pages.containsKey(pageOf(low)) && scanPage(pageOf(low), score) >= 0) return -1;
+
+        if (high < 0) {
+            return low + Math.max(pageSize, low);
+        }
+        return low + (high - low) / 2;
+    }
+
+    /**
+     * First row scoring {@code score} or less, i.e. where a player with that score ranks.
+     * Only valid once {@link #nextProbe(int)} returns -1.
+     */
+    public int lowerBound(int score) {
+        int low = lowBracket(score);
+        if (pages.containsKey(pageOf(low))) {
+            int row = scanPage(pageOf(low), score);
+            if (row >= 0) return row;
+        }
+        return low;
+    }
+
+    // Lowest row that can still be the answer: just past the last known row scoring higher
+    private int lowBracket(int score) {
+        int low = 0;
+        for (Map.Entry<Integer, Integer> known : knownScores.entrySet()) {
+            if (known.getValue() > score) {
+                low = known.getKey() + 1;
+            } else {
+                break;
+            }
+        }
+        return low;
+    }
+
+    // Highest row that can be the answer: the first known row scoring score or less, or the end
+    private int highBracket(int score) {
+        for (Map.Entry<Integer, Integer> known : knownScores.entrySet()) {
+            if (known.getValue() <= score) return known.getKey();
+        }
+        return endRow;
+    }
+
+    // First row of the page scoring score or less, or -1 if the whole page scores higher
+    private int scanPage(int page, int score) {
+        LeaderboardSnapshot rows = pages.get(page);
+        for (int i = 0; i < rows.size(); i++) {
+            if (rows.getScore(i) <= score) return page * pageSize + i;
+        }
+        return -1;
+    }
+
+    /**
+     * Row of a player in the loaded pages, or -1 if none of them has the player
+     */
+    public int rowOf(String name) {
+        for (Map.Entry<Integer, LeaderboardSnapshot> page : pages.entrySet()) {
+            int rank = page.getValue().rankOf(name);
+            if (rank > 0) return page.getKey() * pageSize + rank - 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Rows [from, to) as one snapshot. All pages covering the range must be loaded.
+     */
+    public LeaderboardSnapshot rows(int from, int to) {
+        LeaderboardSnapshot.Builder builder = new LeaderboardSnapshot.Builder(to - from);
+        for (int page = pageOf(from); page * pageSize < to; page++) {
+            LeaderboardSnapshot rows = pages.get(page);
+            if (rows == null) {
+                throw new IllegalStateException("Page " + page + " is not loaded");
+            }
+            int first = page * pageSize;
+            builder.addRows(rows, Math.max(from - first, 0), Math.min(to - first, rows.size()));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Number of pages loaded back to back from the top
+     */
+    public int prefixPages() {
+        int count = 0;
+        while (pages.containsKey(count)) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * The loaded pages from the top, up to the first missing one
+     */
+    public LeaderboardSnapshot prefix() {
+        if (prefix == null) {
+            int count = prefixPages();
+            if (count < prefixRowPages) {
+                // Pages of the prefix were dropped past the end of the board
+                resetPrefixRows();
+            }
+            for (; prefixRowPages < count; prefixRowPages++) {
+                LeaderboardSnapshot rows = pages.get(prefixRowPages);
+                prefixRows.addRows(rows, 0, rows.size());
+            }
+            prefix = prefixRows.snapshot();
+        }
+        return prefix;
+    }
+
+    private void resetPrefixRows() {
+        prefixRows = new LeaderboardSnapshot.Builder(pageSize);
+        prefixRowPages = 0;
+    }
+
+    /**
+     * True when the prefix already reaches the end of the board
+     */
+    public boolean isPrefixComplete() {
+        return endRow >= 0 && prefixPages() * pageSize >= endRow;
+    }
+
+    public void clear() {
+        pages.clear();
+        knownScores.clear();
+        endRow = -1;
+        prefix = null;
+        resetPrefixRows();
+    }
+}
@@ -0,0 +1,318 @@
+package com.example.wordwizard;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column-oriented, read-only leaderboard.
+ * Scores and times are plain int arrays. Names, texts and dates stay as the raw response bytes:
+ * a name is decoded once, the first time it is shown, and the rarely shown text/date fields are
+ * decoded on each request. Rows are in leaderboard order, so the index of a row is its rank minus one.
+ */
+public class LeaderboardSnapshot {
+
+    private static final LeaderboardSnapshot EMPTY = new Builder().build();
+
+    private final int size;
+    private final int[] scores;
+    private final int[] seconds;
+    // Name, text and date of each row stored back to back in bytes;
+    // ends holds the end offset of the three fields of every row
+    private final byte[] bytes;
+    private final int[] ends;
+    // Decoded names and the name lookup, built on first use and shared with top() views
+    private final String[] names;
+    private Map<String, Integer> rowByName;
+
+    private LeaderboardSnapshot(int size, int[] scores, int[] seconds, byte[] bytes, int[] ends, String[] names) {
+        this.size = size;
+        this.scores = scores;
+        this.seconds = seconds;
+        this.bytes = bytes;
+        this.ends = ends;
+        this.names = names;
+    }
+
+    public static LeaderboardSnapshot empty() {
+        return EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public String getName(int index) {
+        return getNameUnchecked(checkIndex(index));
+    }
+
+    public int getScore(int index) {
+        return scores[checkIndex(index)];
+    }
+
+    public int getSeconds(int index) {
+        return seconds[checkIndex(index)];
+    }
+
+    public String getFormattedTime(int index) {
+        return LeaderboardEntry.formatTime(getSeconds(index));
+    }
+
+    public String getText(int index) {
+        return decodeField(checkIndex(index), 1);
+    }
+
+    public String getDate(int index) {
+        return decodeField(checkIndex(index), 2);
+    }
+
+    public LeaderboardEntry getEntry(int index) {
+        return new LeaderboardEntry(getName(index), getScore(index), getSeconds(index),
+                getText(index), getDate(index));
+    }
+
+    /**
+     * 1-based rank of a player, or -1 if they are not on this board
+     */
+    public int rankOf(String name) {
+        Map<String, Integer> lookup = rowByName;
+        if (lookup == null) {
+            // Only this snapshot's rows: builder views share arrays with unfilled slots past size.
+            // A top() view taken after this shares the lookup, rows past its size are ignored
+            lookup = new HashMap<>();
+            for (int i = size - 1; i >= 0; i--) {
+                lookup.put(getNameUnchecked(i), i);
+            }
+            rowByName = lookup;
+        }
+        Integer row = lookup.get(name);
+        return row == null || row >= size ? -1 : row + 1;
+    }
+
+    /**
+     * The first k rows, sharing this snapshot's arrays
+     */
+    public LeaderboardSnapshot top(int k) {
+        if (k >= size) return this;
+        LeaderboardSnapshot view = new LeaderboardSnapshot(Math.max(k, 0), scores, seconds, bytes, ends, names);
+        view.rowByName = rowByName;
+        return view;
+    }
+
+    public List<LeaderboardEntry> toEntries() {
+        List<LeaderboardEntry> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            entries.add(getEntry(i));
+        }
+        return entries;
+    }
+
+    /**
+     * Same rows with the same content, ignoring how the snapshots were built
+     */
+    public boolean contentEquals(LeaderboardSnapshot other) {
+        if (other == this) return true;
+        if (other == null || other.size != size) return false;
+
+        for (int i = 0; i < size; i++) {
+            if (scores[i] != other.scores[i] || seconds[i] != other.seconds[i]) return false;
+        }
+        for (int slot = 0; slot < size * 3; slot++) {
+            if (ends[slot] != other.ends[slot]) return false;
+        }
+        int byteEnd = size == 0 ? 0 : ends[size * 3 - 1];
+        for (int i = 0; i < byteEnd; i++) {
+            if (bytes[i] != other.bytes[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Write the rows back in Dreamlo's pipe format, readable by PipeLeaderboardParser
+     */
+    void writeTo(OutputStream output) throws IOException {
+        int start = 0;
+        for (int i = 0; i < size; i++) {
+            int nameEnd = ends[i * 3];
+            int textEnd = ends[i * 3 + 1];
+            int dateEnd = ends[i * 3 + 2];
+            output.write(bytes, start, nameEnd - start);
+            output.write('|');
+            writeAscii(output, Integer.toString(scores[i]));
+            output.write('|');
+            writeAscii(output, Integer.toString(seconds[i]));
+            output.write('|');
+            output.write(bytes, nameEnd, textEnd - nameEnd);
+            output.write('|');
+            output.write(bytes, textEnd, dateEnd - textEnd);
+            output.write('\n');
+            start = dateEnd;
+        }
+    }
+
+    private static void writeAscii(OutputStream output, String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            output.write(value.charAt(i));
+        }
+    }
+
+    private String getNameUnchecked(int index) {
+        String name = names[index];
+        if (name == null) {
+            name = decodeField(index, 0);
+            names[index] = name;
+        }
+        return name;
+    }
+
+    // field: 0 = name, 1 = text, 2 = date
+    private String decodeField(int index, int field) {
+        int slot = index * 3 + field;
+        int start = slot == 0 ? 0 : ends[slot - 1];
+        return PipeLeaderboardParser.decode(bytes, start, ends[slot]);
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        }
+        return index;
+    }
+
+    /**
+     * Collects parsed rows into growable columns. Can be handed straight to
+     * {@link PipeLeaderboardParser#parse(java.io.InputStream, PipeLeaderboardParser.RowHandler)}.
+     * {@link #build()} hands the columns over without copying, the builder starts over with new
+     * columns on the next row.
+     */
+    public static class Builder implements PipeLeaderboardParser.RowHandler {
+        private static final int AVERAGE_ROW_BYTES = 40;
+
+        private final int expectedRows;
+        private int size;
+        private int[] scores;
+        private int[] seconds;
+        private int[] ends;
+        private byte[] bytes;
+        private int byteCount;
+        // Names decoded by snapshot() views, grown with the columns
+        private String[] names;
+
+        public Builder() {
+            this(32);
+        }
+
+        /**
+         * @param expectedRows Rows to make room for up front, usually the requested limit
+         */
+        public Builder(int expectedRows) {
+            this.expectedRows = Math.max(expectedRows, 1);
+        }
+
+        @Override
+        public void onRow(byte[] line, int nameStart, int nameEnd, int score, int seconds,
+                          int textStart, int textEnd, int dateStart, int dateEnd) {
+            ensureRow();
+            this.scores[size] = score;
+            this.seconds[size] = seconds;
+            appendField(line, nameStart, nameEnd, 0);
+            appendField(line, textStart, textEnd, 1);
+            appendField(line, dateStart, dateEnd, 2);
+            size++;
+        }
+
+        public Builder add(LeaderboardEntry entry) {
+            ensureRow();
+            scores[size] = entry.getScore();
+            seconds[size] = entry.getSeconds();
+            byte[] name = entry.getName().getBytes(StandardCharsets.UTF_8);
+            byte[] text = entry.getText().getBytes(StandardCharsets.UTF_8);
+            byte[] date = entry.getDate().getBytes(StandardCharsets.UTF_8);
+            appendField(name, 0, name.length, 0);
+            appendField(text, 0, text.length, 1);
+            appendField(date, 0, date.length, 2);
+            size++;
+            return this;
+        }
+
+        /**
+         * Append rows [from, to) of another snapshot, copying their raw bytes
+         */
+        public Builder addRows(LeaderboardSnapshot source, int from, int to) {
+            for (int i = from; i < to; i++) {
+                source.checkIndex(i);
+                int slot = i * 3;
+                int nameStart = slot == 0 ? 0 : source.ends[slot - 1];
+                onRow(source.bytes, nameStart, source.ends[slot], source.scores[i], source.seconds[i],
+                        source.ends[slot], source.ends[slot + 1], source.ends[slot + 1], source.ends[slot + 2]);
+            }
+            return this;
+        }
+
+        private void ensureRow() {
+            if (scores == null) {
+                scores = new int[expectedRows];
+                seconds = new int[expectedRows];
+                ends = new int[expectedRows * 3];
+                bytes = new byte[expectedRows * AVERAGE_ROW_BYTES];
+                names = new String[expectedRows];
+            } else if (size == scores.length) {
+                int capacity = size * 2;
+                scores = Arrays.copyOf(scores, capacity);
+                seconds = Arrays.copyOf(seconds, capacity);
+                ends = Arrays.copyOf(ends, capacity * 3);
+                names = Arrays.copyOf(names, capacity);
+            }
+        }
+
+        private void appendField(byte[] data, int start, int end, int field) {
+            int length = end - start;
+            if (byteCount + length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, byteCount + length));
+            }
+            System.arraycopy(data, start, bytes, byteCount, length);
+            byteCount += length;
+            ends[size * 3 + field] = byteCount;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * The rows added so far, sharing the columns instead of handing them over. Rows added
+         * later go past the snapshot's end, so it stays valid while the builder keeps growing.
+         */
+        public LeaderboardSnapshot snapshot() {
+            if (scores == null) {
+                return LeaderboardSnapshot.empty();
+            }
+            return new LeaderboardSnapshot(size, scores, seconds, bytes, ends, names);
+        }
+
+        public LeaderboardSnapshot build() {
+            if (scores == null) {
+                return new LeaderboardSnapshot(0, new int[0], new int[0], new byte[0], new int[0], new String[0]);
+            }
+            LeaderboardSnapshot snapshot = new LeaderboardSnapshot(size, scores, seconds, bytes, ends,
+                    new String[size]);
+            scores = null;
+            seconds = null;
+            ends = null;
+            bytes = null;
+            names = null;
+            size = 0;
+            byteCount = 0;
+            return snapshot;
+        }
+    }
+}
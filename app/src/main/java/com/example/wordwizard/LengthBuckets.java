@@ -0,0 +1,66 @@
+package com.example.wordwizard;
+
+import java.util.ArrayDeque;
+import java.util.TreeMap;
+
+/**
+ * Bounded store of words grouped by their length.
+ * Each length keeps at most {@code capacityPerLength} words, extra words are dropped.
+ */
+class LengthBuckets {
+
+    private final TreeMap<Integer, ArrayDeque<String>> buckets = new TreeMap<>();
+    private final int capacityPerLength;
+
+    LengthBuckets(int capacityPerLength) {
+        this.capacityPerLength = capacityPerLength;
+    }
+
+    /**
+     * Add a word to the bucket for its length
+     * @return false if the bucket was already full
+     */
+    synchronized boolean offer(String word) {
+        ArrayDeque<String> bucket = buckets.get(word.length());
+        if (bucket == null) {
+            bucket = new ArrayDeque<>();
+            buckets.put(word.length(), bucket);
+        }
+        if (bucket.size() >= capacityPerLength) {
+            return false;
+        }
+        bucket.addLast(word);
+        return true;
+    }
+
+    /**
+     * Take a word with at least minLength letters, shortest lengths first
+     * @return the word, or null if no bucket can satisfy the request
+     */
+    synchronized String poll(int minLength) {
+        for (ArrayDeque<String> bucket : buckets.tailMap(minLength, true).values()) {
+            String word = bucket.pollFirst();
+            if (word != null) {
+                return word;
+            }
+        }
+        return null;
+    }
+
+    // Number of stored words with at least minLength letters
+    synchronized int countAtLeast(int minLength) {
+        int count = 0;
+        for (ArrayDeque<String> bucket : buckets.tailMap(minLength, true).values()) {
+            count += bucket.size();
+        }
+        return count;
+    }
+
+    synchronized int size() {
+        return countAtLeast(0);
+    }
+
+    synchronized void clear() {
+        buckets.clear();
+    }
+}
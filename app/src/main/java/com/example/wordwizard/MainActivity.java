@@ -4,18 +4,30 @@ import android.app.AlertDialog;
 import android.content.SharedPreferences;
 import android.graphics.Color;
 import android.os.Bundle;
+import android.content.Intent;
 import android.os.Handler;
+import android.os.Looper;
 import android.text.InputFilter;
 import android.view.View;
 import android.widget.Button;
+import android.widget.CompoundButton;
 import android.widget.EditText;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
 
 public class MainActivity extends AppCompatActivity {
 
@@ -23,36 +35,86 @@ public class MainActivity extends AppCompatActivity {
     private TextView welcomeTextView, scoreTextView, attemptsTextView, timerTextView, levelTextView, feedbackTextView;
     private EditText guessEditText;
     private Button submitGuessButton, checkLetterButton, wordLengthButton, getHintButton, newGameButton, leaderboardButton;
+    private CompoundButton offlineWordsSwitch;
 
     // Game State
-    private String secretWord = "";
-    private int score = 100;
-    private int attemptsLeft = 10;
-    private int level = 1;
-    private long startTime;
-    private boolean gameActive = false;
-    private boolean hintUsed = false;
-    private int wrongGuessCount = 0;
-
-    // Services
+    private final GameEngine engine = new GameEngine();
+    // Bumped whenever a round ends, results requested for an older round are dropped
+    private int roundGeneration = 0;
+    private CompletableFuture<String> wordRequest;
+    // When the round's word was shown, for time to first guess and to hint
+    private long roundStartNanos;
+    private boolean roundGuessed;
+
+    // Hint looked up in the background while the round is played
+    private List<String> prefetchedSynonyms;
+    private ApiService.ApiCallback<List<String>> hintPrefetchCallback;
+    private String hintPrefetchWord;
+
+    // Services, built on first use by the getters below, most are not needed for the first frame
+    private NetworkScheduler networkScheduler;
     private ApiService apiService;
+    private WordPool wordPool;
+    private OfflineDictionary offlineDictionary;
+    private boolean dictionaryOpened;
+    private WordSource primaryWordSource;
+    private SynonymCache synonymCache;
     private DreamloService dreamloService;
+    private LeaderboardCache leaderboardCache;
+    private PagedLeaderboard pagedLeaderboard;
+    // Every score seen locally, ranks are exact for rows up to rankedTopRows
+    private final RankedLeaderboard rankedLeaderboard = new RankedLeaderboard();
+    private int rankedTopRows = 0;
+    private ScoreOutbox scoreOutbox;
+    private final MetricsRegistry metrics = MetricsRegistry.getDefault();
+    private MetricsRegistry.Exporter metricsExporter;
     private SharedPreferences sharedPreferences;
     private Handler timerHandler;
     private Runnable timerRunnable;
 
     private static final String PREFS_NAME = "WordWizardPrefs";
     private static final String KEY_USER_NAME = "userName";
+    private static final String KEY_USE_OFFLINE_WORDS = "useOfflineWords";
+    private static final String KEY_IS_FIRST_TIME = "isFirstTime";
+
+    // Give up on the primary word source after this long
+    private static final long WORD_TIMEOUT_MS = 6_000;
+
+    // Word pool sizing
+    private static final int WORD_POOL_CAPACITY = 4;
+    private static final int WORD_POOL_TARGET = 4;
+    private static final int WORD_POOL_LOW_WATER = 2;
+
+    // Rows shown in the leaderboard dialog, and fetched per page when scrolling further
+    private static final int LEADERBOARD_SIZE = 25;
+    // Load the next page when this close to the last loaded row
+    private static final int LEADERBOARD_PREFETCH_ROWS = 5;
+
+    // Synonym cache sizing
+    private static final int SYNONYM_CACHE_ENTRIES = 64;
+    private static final long SYNONYM_CACHE_TTL_MS = 7L * 24 * 60 * 60 * 1000;
+
+    // Metrics snapshots appended to a local file, kept to two files of this size
+    private static final long METRICS_EXPORT_PERIOD_MS = 60_000;
+    private static final long METRICS_FILE_MAX_BYTES = 256 * 1024;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        sharedPreferences = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
+
+        // Returning players start right here, only the first run goes through onboarding
+        if (sharedPreferences.getBoolean(KEY_IS_FIRST_TIME, true)) {
+            startActivity(new Intent(this, OnboardingActivity.class));
+            finish();
+            return;
+        }
+
+        // The HTTP client is built and connected while the layout inflates
+        HttpClients.prewarm(this, Endpoints.PRODUCTION.randomWordUrl());
         setContentView(R.layout.activity_main);
 
-        // Initialize services
-        apiService = new ApiService();
-        dreamloService = new DreamloService();
-        sharedPreferences = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
+        networkScheduler = new NetworkScheduler();
         timerHandler = new Handler();
 
         // Initialize UI elements
@@ -69,6 +131,151 @@ public class MainActivity extends AppCompatActivity {
 
         // Start new game
         startNewGame();
+
+        // Everything the first word does not need waits until the first frame is drawn
+        Looper.myQueue().addIdleHandler(() -> {
+            if (!isFinishing() && !isDestroyed()) {
+                onFirstIdle();
+            }
+            return false;
+        });
+    }
+
+    private void onFirstIdle() {
+        // Sends scores left over from the previous run
+        scoreOutbox();
+        leaderboardCache().prefetch();
+        registerGauges();
+        metricsExporter = metrics.startExport(new File(getFilesDir(), "metrics.txt"),
+                METRICS_EXPORT_PERIOD_MS, METRICS_FILE_MAX_BYTES);
+    }
+
+    private ApiService apiService() {
+        if (apiService == null) {
+            // The client is built on a network lane, or taken from the prewarm, never on the main thread
+            apiService = new ApiService(this::httpClient, networkScheduler);
+        }
+        return apiService;
+    }
+
+    private OkHttpClient httpClient() {
+        return HttpClients.get(getApplicationContext());
+    }
+
+    private WordPool wordPool() {
+        if (wordPool == null) {
+            wordPool = new WordPool(apiService(), WORD_POOL_CAPACITY, WORD_POOL_TARGET, WORD_POOL_LOW_WATER);
+        }
+        return wordPool;
+    }
+
+    private WordSource primaryWordSource() {
+        if (primaryWordSource == null) {
+            initializeWordSources();
+        }
+        return primaryWordSource;
+    }
+
+    private SynonymCache synonymCache() {
+        if (synonymCache == null) {
+            synonymCache = new SynonymCache(apiService(), networkScheduler, new File(getCacheDir(), "synonyms"),
+                    SYNONYM_CACHE_ENTRIES, SYNONYM_CACHE_TTL_MS);
+        }
+        return synonymCache;
+    }
+
+    private DreamloService dreamloService() {
+        if (dreamloService == null) {
+            dreamloService = new DreamloService(this::httpClient, networkScheduler);
+        }
+        return dreamloService;
+    }
+
+    private LeaderboardCache leaderboardCache() {
+        if (leaderboardCache == null) {
+            leaderboardCache = new LeaderboardCache(dreamloService(), new File(getFilesDir(), "leaderboard.txt"),
+                    LEADERBOARD_SIZE);
+        }
+        return leaderboardCache;
+    }
+
+    private PagedLeaderboard pagedLeaderboard() {
+        if (pagedLeaderboard == null) {
+            pagedLeaderboard = new PagedLeaderboard(dreamloService(), networkScheduler, LEADERBOARD_SIZE);
+        }
+        return pagedLeaderboard;
+    }
+
+    private ScoreOutbox scoreOutbox() {
+        if (scoreOutbox == null) {
+            scoreOutbox = new ScoreOutbox(dreamloService(), networkScheduler, new File(getFilesDir(), "score_outbox.log"));
+            scoreOutbox.setListener(count -> {
+                // Only caches that exist can be stale
+                if (leaderboardCache != null) leaderboardCache.invalidate();
+                if (pagedLeaderboard != null) pagedLeaderboard.invalidate();
+                Toast.makeText(MainActivity.this, "Score submitted! 🎉", Toast.LENGTH_SHORT).show();
+            });
+        }
+        return scoreOutbox;
+    }
+
+    private void initializeWordSources() {
+        if (!dictionaryOpened) {
+            dictionaryOpened = true;
+            try {
+                offlineDictionary = OfflineDictionary.open(this);
+            } catch (IOException e) {
+                offlineDictionary = null;
+            }
+        }
+
+        // The bundled dictionary can be the primary source, the API then only refreshes the word pool
+        boolean useOfflineWords = sharedPreferences.getBoolean(KEY_USE_OFFLINE_WORDS, false);
+        if (offlineDictionary == null) {
+            primaryWordSource = apiService();
+        } else if (useOfflineWords) {
+            primaryWordSource = offlineDictionary;
+        } else {
+            // A slow API answer is raced against the dictionary instead of waited out
+            primaryWordSource = new HedgedWordSource(apiService(), offlineDictionary);
+        }
+    }
+
+    // Read on every metrics snapshot, removed again in onDestroy
+    private void registerGauges() {
+        for (NetworkScheduler.Lane lane : NetworkScheduler.Lane.values()) {
+            metrics.gauge("scheduler." + lane + ".queued", () -> networkScheduler.getQueuedCount(lane));
+        }
+        // Both services are needed by now, so every breaker gets its gauges
+        apiService();
+        dreamloService();
+        for (CircuitBreaker breaker : circuitBreakers()) {
+            metrics.gauge("breaker." + breaker.getName() + ".state", () -> breaker.getState().ordinal());
+            metrics.gauge("breaker." + breaker.getName() + ".rejected", breaker::getRejectedCount);
+        }
+    }
+
+    private void removeGauges() {
+        for (NetworkScheduler.Lane lane : NetworkScheduler.Lane.values()) {
+            metrics.removeGauge("scheduler." + lane + ".queued");
+        }
+        for (CircuitBreaker breaker : circuitBreakers()) {
+            metrics.removeGauge("breaker." + breaker.getName() + ".state");
+            metrics.removeGauge("breaker." + breaker.getName() + ".rejected");
+        }
+    }
+
+    // Breakers of the services created so far, without creating the others
+    private List<CircuitBreaker> circuitBreakers() {
+        List<CircuitBreaker> breakers = new ArrayList<>();
+        if (apiService != null) {
+            breakers.add(apiService.getWordBreaker());
+            breakers.add(apiService.getThesaurusBreaker());
+        }
+        if (dreamloService != null) {
+            breakers.add(dreamloService.getCircuitBreaker());
+        }
+        return breakers;
     }
 
     private void initializeViews() {
@@ -85,6 +292,7 @@ public class MainActivity extends AppCompatActivity {
         getHintButton = findViewById(R.id.getHintButton);
         newGameButton = findViewById(R.id.newGameButton);
         leaderboardButton = findViewById(R.id.leaderboardButton);
+        offlineWordsSwitch = findViewById(R.id.offlineWordsSwitch);
     }
 
     private void loadUserName() {
@@ -96,9 +304,8 @@ public class MainActivity extends AppCompatActivity {
         timerRunnable = new Runnable() {
             @Override
             public void run() {
-                if (gameActive) {
-                    long elapsedTime = System.currentTimeMillis() - startTime;
-                    int seconds = (int) (elapsedTime / 1000);
+                if (engine.isPlaying()) {
+                    int seconds = engine.getRoundSeconds();
                     int minutes = seconds / 60;
                     seconds = seconds % 60;
                     timerTextView.setText(String.format(Locale.getDefault(), "%02d:%02d", minutes, seconds));
@@ -115,16 +322,19 @@ public class MainActivity extends AppCompatActivity {
         getHintButton.setOnClickListener(v -> handleGetHint());
         newGameButton.setOnClickListener(v -> startNewGame());
         leaderboardButton.setOnClickListener(v -> showLeaderboard());
+
+        offlineWordsSwitch.setChecked(sharedPreferences.getBoolean(KEY_USE_OFFLINE_WORDS, false));
+        offlineWordsSwitch.setOnCheckedChangeListener((button, isChecked) -> {
+            sharedPreferences.edit().putBoolean(KEY_USE_OFFLINE_WORDS, isChecked).apply();
+            // Picked up when the next word is requested
+            primaryWordSource = null;
+        });
     }
 
     private void startNewGame() {
         // Reset game state
-        score = 100;
-        attemptsLeft = 10;
-        level = 1;
-        hintUsed = false;
-        wrongGuessCount = 0;
-        gameActive = false;
+        engine.startNewGame();
+        endRound();
 
         // Update UI
         updateUI();
@@ -133,13 +343,19 @@ public class MainActivity extends AppCompatActivity {
         guessEditText.setEnabled(false);
         disableButtons();
 
-        // Get random word from API
-        apiService.getRandomWord(new ApiService.ApiCallback<String>() {
+        // Refresh the leaderboard while the word loads rather than when the dialog opens,
+        // on the first game it is done once the first frame is drawn
+        if (leaderboardCache != null) {
+            leaderboardCache.prefetch();
+        }
+
+        // Get random word (from the pool if one is ready)
+        requestWord(1, new ApiService.ApiCallback<String>() {
             @Override
             public void onSuccess(String word) {
-                secretWord = word.toLowerCase();
-                gameActive = true;
-                startTime = System.currentTimeMillis();
+                engine.startRound(word.toLowerCase());
+                onRoundStarted();
+                startHintPrefetch();
                 timerHandler.post(timerRunnable);
                 
                 setFeedback("Game started! Make your guess.", Color.BLACK);
@@ -155,40 +371,62 @@ public class MainActivity extends AppCompatActivity {
         });
     }
 
+    private void onRoundStarted() {
+        roundStartNanos = System.nanoTime();
+        roundGuessed = false;
+        metrics.increment("round.started");
+    }
+
     private void handleGuess() {
-        if (!gameActive) return;
+        if (!engine.isPlaying()) return;
 
-        String guess = guessEditText.getText().toString().trim().toLowerCase();
+        CharSequence guess = guessEditText.getText();
         
-        if (guess.isEmpty()) {
+        if (SecretWordIndex.isBlank(guess)) {
             Toast.makeText(this, R.string.enter_valid_word, Toast.LENGTH_SHORT).show();
             return;
         }
 
-        if (guess.equals(secretWord)) {
-            // Correct guess!
-            handleCorrectGuess();
-        } else {
-            // Wrong guess
-            handleWrongGuess();
+        GameEngine.GuessResult result = engine.guess(guess);
+        if (result != GameEngine.GuessResult.IGNORED && !roundGuessed) {
+            roundGuessed = true;
+            metrics.recordMillisSince("round.first_guess.ms", roundStartNanos);
+        }
+        switch (result) {
+            case CORRECT:
+                handleCorrectGuess();
+                break;
+            case WRONG:
+                updateUI();
+                setFeedback("❌ " + getString(R.string.wrong_guess) + " " + engine.getAttemptsLeft() + " attempts left.",
+                           Color.parseColor("#E74C3C"));
+                break;
+            case GAME_OVER:
+                handleGameOver();
+                break;
+            default:
+                break;
         }
 
         guessEditText.setText("");
     }
 
     private void handleCorrectGuess() {
-        gameActive = false;
-        long elapsedTime = System.currentTimeMillis() - startTime;
-        int timeInSeconds = (int) (elapsedTime / 1000);
+        metrics.increment("round.won");
+        metrics.recordMillisSince("round.duration.ms", roundStartNanos);
+        endRound();
+        int timeInSeconds = engine.getRoundSeconds();
 
         setFeedback("🎉 " + getString(R.string.correct_guess), Color.parseColor("#27AE60"));
         
         // Submit to leaderboard
         submitScore(timeInSeconds);
 
-        // Level up
+        // Level up, unless a new game was started meanwhile
+        int generation = roundGeneration;
         new Handler().postDelayed(() -> {
-            level++;
+            if (generation != roundGeneration) return;
+            engine.levelUp();
             updateUI();
             loadNextLevelWord();
         }, 2000);
@@ -198,22 +436,17 @@ public class MainActivity extends AppCompatActivity {
         setFeedback(getString(R.string.level_up), Color.parseColor("#FEB21A"));
         guessEditText.setEnabled(false);
         disableButtons();
-        hintUsed = false;
-        wrongGuessCount = 0;
 
         // Get word with increasing difficulty
-        int minLength = 3 + level;
-        apiService.getRandomWordWithLength(minLength, new ApiService.ApiCallback<String>() {
+        requestWord(engine.getMinWordLength(), new ApiService.ApiCallback<String>() {
             @Override
             public void onSuccess(String word) {
-                secretWord = word.toLowerCase();
-                score = 100;
-                attemptsLeft = 10;
-                gameActive = true;
-                startTime = System.currentTimeMillis();
+                engine.startRound(word.toLowerCase());
+                onRoundStarted();
+                startHintPrefetch();
                 
                 updateUI();
-                setFeedback("Level " + level + " - New word loaded!", Color.BLACK);
+                setFeedback("Level " + engine.getLevel() + " - New word loaded!", Color.BLACK);
                 guessEditText.setEnabled(true);
                 enableButtons();
             }
@@ -225,32 +458,75 @@ public class MainActivity extends AppCompatActivity {
         });
     }
 
-    private void handleWrongGuess() {
-        wrongGuessCount++;
-        attemptsLeft--;
-        score -= 10;
+    // Serve the word from the pool when possible, otherwise fetch it from the primary source
+    private void requestWord(int minLength, ApiService.ApiCallback<String> callback) {
+        int generation = roundGeneration;
+        long requested = System.nanoTime();
+        String pooledWord = wordPool().poll(minLength);
+        metrics.increment(pooledWord != null ? "word.pool.hits" : "word.pool.misses");
+        CompletableFuture<String> word = pooledWord != null
+                ? CompletableFuture.completedFuture(pooledWord)
+                : fetchWord(minLength);
+        wordRequest = word;
+        // Drop a result that arrives after the round it was requested for has ended
+        word.whenCompleteAsync((result, error) -> {
+            if (generation != roundGeneration) return;
+            wordRequest = null;
+            if (error == null) {
+                metrics.recordMillisSince("round.word_wait.ms", requested);
+                callback.onSuccess(result);
+            } else {
+                callback.onError(Futures.unwrap(error).getMessage());
+            }
+        }, Futures.mainThread());
 
-        if (score < 0) score = 0;
+        // Refill in the background and have the next level's word ready before it is needed
+        wordPool().prefetch(GameEngine.minWordLength(engine.getLevel() + 1));
+    }
 
-        updateUI();
+    // Primary source with a timeout, API words are hedged with the dictionary and dictionary words fall back to the API
+    private CompletableFuture<String> fetchWord(int minLength) {
+        WordSource source = primaryWordSource();
+        CompletableFuture<String> primary = Futures.withTimeout(source.randomWord(minLength),
+                WORD_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        if (source != offlineDictionary) {
+            return primary;
+        }
+        return Futures.orElse(primary, () -> apiService().randomWord(minLength));
+    }
 
-        if (attemptsLeft <= 0 || score <= 0) {
-            // Game over
-            gameActive = false;
-            setFeedback(getString(R.string.game_over, secretWord), Color.parseColor("#E74C3C"));
-            disableButtons();
-            
-            new Handler().postDelayed(() -> startNewGame(), 3000);
-        } else {
-            setFeedback("❌ " + getString(R.string.wrong_guess) + " " + attemptsLeft + " attempts left.", 
-                       Color.parseColor("#E74C3C"));
+    // Drop everything still in flight for the round that just ended
+    private void endRound() {
+        roundGeneration++;
+        cancelHintPrefetch();
+        if (wordRequest != null) {
+            wordRequest.cancel(false);
+            wordRequest = null;
         }
+        networkScheduler.startRound();
+    }
+
+    private void handleGameOver() {
+        metrics.increment("round.lost");
+        metrics.recordMillisSince("round.duration.ms", roundStartNanos);
+        updateUI();
+        endRound();
+        setFeedback(getString(R.string.game_over, engine.getSecretWord().getWord()), Color.parseColor("#E74C3C"));
+        disableButtons();
+
+        // Unless the player already started a new game themselves
+        int generation = roundGeneration;
+        new Handler().postDelayed(() -> {
+            if (generation == roundGeneration) {
+                startNewGame();
+            }
+        }, 3000);
     }
 
     private void showLetterCheckDialog() {
-        if (!gameActive) return;
+        if (!engine.isPlaying()) return;
         
-        if (score < 5) {
+        if (!engine.canBuyClue()) {
             Toast.makeText(this, R.string.insufficient_score, Toast.LENGTH_SHORT).show();
             return;
         }
@@ -264,23 +540,18 @@ public class MainActivity extends AppCompatActivity {
         builder.setView(input);
 
         builder.setPositiveButton(R.string.check, (dialog, which) -> {
-            String letter = input.getText().toString().toLowerCase();
+            CharSequence text = input.getText();
             
-            if (letter.isEmpty() || !Character.isLetter(letter.charAt(0))) {
+            if (text.length() == 0 || !Character.isLetter(text.charAt(0))) {
                 Toast.makeText(MainActivity.this, R.string.enter_valid_letter, Toast.LENGTH_SHORT).show();
                 return;
             }
 
-            // Count occurrences
-            int count = 0;
-            for (char c : secretWord.toCharArray()) {
-                if (c == letter.charAt(0)) {
-                    count++;
-                }
-            }
+            // The round may have ended while the dialog was open
+            if (!engine.canBuyClue()) return;
 
-            score -= 5;
-            if (score < 0) score = 0;
+            char letter = Character.toLowerCase(text.charAt(0));
+            int count = engine.checkLetter(letter);
             updateUI();
 
             String message = getString(R.string.letter_count, letter, count);
@@ -293,86 +564,134 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void handleWordLength() {
-        if (!gameActive) return;
+        if (!engine.isPlaying()) return;
         
-        if (score < 5) {
+        if (!engine.canBuyClue()) {
             Toast.makeText(this, R.string.insufficient_score, Toast.LENGTH_SHORT).show();
             return;
         }
 
-        score -= 5;
-        if (score < 0) score = 0;
+        int length = engine.revealLength();
         updateUI();
 
-        String message = getString(R.string.word_length_info, secretWord.length());
+        String message = getString(R.string.word_length_info, length);
         setFeedback(message, Color.parseColor("#FEB21A"));
         Toast.makeText(this, message, Toast.LENGTH_LONG).show();
     }
 
     private void handleGetHint() {
-        if (!gameActive) return;
-        
-        if (wrongGuessCount < 5) {
-            Toast.makeText(this, R.string.hint_available, Toast.LENGTH_SHORT).show();
-            return;
+        switch (engine.checkHint()) {
+            case NOT_PLAYING:
+                return;
+            case TOO_EARLY:
+                Toast.makeText(this, R.string.hint_available, Toast.LENGTH_SHORT).show();
+                return;
+            case ALREADY_USED:
+                Toast.makeText(this, "Hint already used for this word!", Toast.LENGTH_SHORT).show();
+                return;
+            case INSUFFICIENT_SCORE:
+                Toast.makeText(this, R.string.insufficient_score, Toast.LENGTH_SHORT).show();
+                return;
+            default:
+                break;
         }
 
-        if (hintUsed) {
-            Toast.makeText(this, "Hint already used for this word!", Toast.LENGTH_SHORT).show();
-            return;
-        }
+        // Deduct points and get hint
+        engine.useHint();
+        updateUI();
+        metrics.recordMillisSince("round.hint.ms", roundStartNanos);
 
-        if (score < 5) {
-            Toast.makeText(this, R.string.insufficient_score, Toast.LENGTH_SHORT).show();
+        // Usually the hint was already looked up when the round started
+        if (prefetchedSynonyms != null) {
+            metrics.increment("hint.prefetched");
+            showSynonymHint(prefetchedSynonyms);
             return;
         }
 
-        // Deduct points and get hint
-        score -= 5;
-        if (score < 0) score = 0;
-        hintUsed = true;
-        updateUI();
-
         setFeedback("Getting hint...", Color.BLACK);
 
-        apiService.getSynonyms(secretWord, new ApiService.ApiCallback<List<String>>() {
+        int generation = roundGeneration;
+        long requested = System.nanoTime();
+        synonymCache().getSynonyms(engine.getSecretWord().getWord(), new ApiService.ApiCallback<List<String>>() {
             @Override
             public void onSuccess(List<String> synonyms) {
-                if (!synonyms.isEmpty()) {
-                    String hint = synonyms.get(0);
-                    String message = getString(R.string.hint_info, hint);
-                    setFeedback(message, Color.parseColor("#FEB21A"));
-                    Toast.makeText(MainActivity.this, message, Toast.LENGTH_LONG).show();
-                } else {
-                    setFeedback("No hint available for this word.", Color.BLACK);
-                }
+                if (generation != roundGeneration) return;
+                metrics.recordMillisSince("hint.wait.ms", requested);
+                showSynonymHint(synonyms);
             }
 
             @Override
             public void onError(String error) {
-                // Fallback: give first and last letter
-                String fallbackHint = "Starts with '" + secretWord.charAt(0) + 
-                                     "' and ends with '" + secretWord.charAt(secretWord.length() - 1) + "'";
-                setFeedback("Hint: " + fallbackHint, Color.parseColor("#FEB21A"));
-                Toast.makeText(MainActivity.this, fallbackHint, Toast.LENGTH_LONG).show();
+                if (generation != roundGeneration) return;
+                metrics.recordMillisSince("hint.wait.ms", requested);
+                metrics.increment("hint.fallback");
+                showFallbackHint();
             }
         });
     }
 
-    private void submitScore(int timeInSeconds) {
-        String userName = sharedPreferences.getString(KEY_USER_NAME, "Player");
-        
-        dreamloService.submitScore(userName, score, timeInSeconds, level, new DreamloService.DreamloCallback<Boolean>() {
+    private void showSynonymHint(List<String> synonyms) {
+        if (!synonyms.isEmpty()) {
+            String hint = synonyms.get(0);
+            String message = getString(R.string.hint_info, hint);
+            setFeedback(message, Color.parseColor("#FEB21A"));
+            Toast.makeText(MainActivity.this, message, Toast.LENGTH_LONG).show();
+        } else {
+            setFeedback("No hint available for this word.", Color.BLACK);
+        }
+    }
+
+    private void showFallbackHint() {
+        // Fallback: give first and last letter
+        SecretWordIndex word = engine.getSecretWord();
+        String fallbackHint = "Starts with '" + word.getFirstLetter() +
+                             "' and ends with '" + word.getLastLetter() + "'";
+        setFeedback("Hint: " + fallbackHint, Color.parseColor("#FEB21A"));
+        Toast.makeText(MainActivity.this, fallbackHint, Toast.LENGTH_LONG).show();
+    }
+
+    // Look the hint up as soon as the word is known, it can only be used after 5 wrong guesses
+    private void startHintPrefetch() {
+        cancelHintPrefetch();
+
+        final String word = engine.getSecretWord().getWord();
+        hintPrefetchWord = word;
+        hintPrefetchCallback = new ApiService.ApiCallback<List<String>>() {
             @Override
-            public void onSuccess(Boolean result) {
-                Toast.makeText(MainActivity.this, "Score submitted! 🎉", Toast.LENGTH_SHORT).show();
+            public void onSuccess(List<String> synonyms) {
+                if (hintPrefetchCallback != this) return;
+                prefetchedSynonyms = synonyms;
+                hintPrefetchCallback = null;
             }
 
             @Override
             public void onError(String error) {
-                Toast.makeText(MainActivity.this, "Score saved locally", Toast.LENGTH_SHORT).show();
+                // handleGetHint tries again when the hint is requested
+                if (hintPrefetchCallback != this) return;
+                hintPrefetchCallback = null;
             }
-        });
+        };
+        synonymCache().prefetch(word, hintPrefetchCallback);
+    }
+
+    // Drop the hint of the round that just ended
+    private void cancelHintPrefetch() {
+        if (hintPrefetchCallback != null) {
+            synonymCache.cancel(hintPrefetchWord, hintPrefetchCallback);
+            hintPrefetchCallback = null;
+        }
+        hintPrefetchWord = null;
+        prefetchedSynonyms = null;
+    }
+
+    private void submitScore(int timeInSeconds) {
+        String userName = sharedPreferences.getString(KEY_USER_NAME, "Player");
+
+        // Saved to the outbox first, sent in the background whenever the network allows
+        scoreOutbox().submit(userName, engine.getScore(), timeInSeconds, engine.getLevel());
+        // Ranked locally right away, Dreamlo keeps the best score per player the same way
+        rankedLeaderboard.submit(new LeaderboardEntry(DreamloService.cleanName(userName), engine.getScore(),
+                timeInSeconds, "Level" + engine.getLevel(), ""));
     }
 
     private void showLeaderboard() {
@@ -384,112 +703,133 @@ public class MainActivity extends AppCompatActivity {
         
         TextView loadingTextView = dialogView.findViewById(R.id.loadingTextView);
         TextView emptyTextView = dialogView.findViewById(R.id.emptyTextView);
-        android.widget.ScrollView scrollView = dialogView.findViewById(R.id.leaderboardScrollView);
-        android.widget.LinearLayout entriesContainer = dialogView.findViewById(R.id.leaderboardEntriesContainer);
+        TextView playerRankTextView = dialogView.findViewById(R.id.playerRankTextView);
+        View contentView = dialogView.findViewById(R.id.leaderboardContent);
+        RecyclerView recyclerView = dialogView.findViewById(R.id.leaderboardRecyclerView);
         Button closeButton = dialogView.findViewById(R.id.closeButton);
         
         closeButton.setOnClickListener(v -> dialog.dismiss());
+
+        LeaderboardAdapter adapter = new LeaderboardAdapter(this);
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        recyclerView.setLayoutManager(layoutManager);
+        recyclerView.setHasFixedSize(true);
+        recyclerView.setAdapter(adapter);
+
+        // Page loads started by this dialog, cancelled when it is dismissed
+        List<RequestHandle> pageRequests = new ArrayList<>();
+        // Rows loaded from the top so far; a failed page load keeps the rows already shown
+        DreamloService.DreamloCallback<LeaderboardSnapshot> showRows = new DreamloService.DreamloCallback<LeaderboardSnapshot>() {
+            @Override
+            public void onSuccess(LeaderboardSnapshot rows) {
+                adapter.submit(rows);
+            }
+
+            @Override
+            public void onError(String error) {
+            }
+        };
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(RecyclerView view, int dx, int dy) {
+                int itemCount = adapter.getItemCount();
+                if (dy > 0 && itemCount > 0
+                        && layoutManager.findLastVisibleItemPosition() >= itemCount - LEADERBOARD_PREFETCH_ROWS) {
+                    RequestHandle request = pagedLeaderboard().loadMore(showRows);
+                    // The same handle comes back while a page is still loading
+                    if (!pageRequests.contains(request)) {
+                        pageRequests.add(request);
+                    }
+                }
+            }
+        });
         
         // Show loading
         loadingTextView.setVisibility(View.VISIBLE);
-        scrollView.setVisibility(View.GONE);
+        contentView.setVisibility(View.GONE);
         emptyTextView.setVisibility(View.GONE);
         
         dialog.show();
         
-        // Fetch leaderboard data
-        dreamloService.getTopScores(25, new DreamloService.DreamloCallback<List<LeaderboardEntry>>() {
+        // Show the last known leaderboard right away, the cache refreshes it in the background
+        LeaderboardCache.Listener listener = new LeaderboardCache.Listener() {
+            private boolean hasData = false;
+
             @Override
-            public void onSuccess(List<LeaderboardEntry> entries) {
+            public void onLeaderboard(LeaderboardSnapshot entries) {
+                hasData = true;
                 loadingTextView.setVisibility(View.GONE);
                 
                 if (entries.isEmpty()) {
+                    emptyTextView.setText(R.string.no_scores);
                     emptyTextView.setVisibility(View.VISIBLE);
-                    scrollView.setVisibility(View.GONE);
+                    contentView.setVisibility(View.GONE);
                 } else {
-                    scrollView.setVisibility(View.VISIBLE);
-                    populateLeaderboard(entriesContainer, entries);
+                    emptyTextView.setVisibility(View.GONE);
+                    contentView.setVisibility(View.VISIBLE);
+                    pageRequests.add(pagedLeaderboard().setFirstPage(entries, showRows));
+                    rankedLeaderboard.mergeAll(entries.toEntries());
+                    rankedTopRows = Math.max(rankedTopRows, entries.size());
                 }
             }
 
             @Override
-            public void onError(String error) {
+            public void onRefreshError(String error) {
+                // Keep showing the cached leaderboard if there is one
+                if (hasData) return;
                 loadingTextView.setVisibility(View.GONE);
                 emptyTextView.setText("Error loading leaderboard: " + error);
                 emptyTextView.setVisibility(View.VISIBLE);
-                scrollView.setVisibility(View.GONE);
+                contentView.setVisibility(View.GONE);
             }
+        };
+        RequestHandle rankRequest = showPlayerRank(playerRankTextView);
+        dialog.setOnDismissListener(d -> {
+            leaderboardCache().removeListener(listener);
+            rankRequest.cancel();
+            for (RequestHandle request : pageRequests) {
+                request.cancel();
+            }
+            adapter.shutdown();
         });
+        leaderboardCache().get(listener);
     }
-    
-    private void populateLeaderboard(android.widget.LinearLayout container, List<LeaderboardEntry> entries) {
-        container.removeAllViews();
-        
-        for (int i = 0; i < entries.size(); i++) {
-            LeaderboardEntry entry = entries.get(i);
-            
-            android.widget.LinearLayout row = new android.widget.LinearLayout(this);
-            row.setOrientation(android.widget.LinearLayout.HORIZONTAL);
-            row.setLayoutParams(new android.widget.LinearLayout.LayoutParams(
-                android.widget.LinearLayout.LayoutParams.MATCH_PARENT,
-                android.widget.LinearLayout.LayoutParams.WRAP_CONTENT
-            ));
-            row.setPadding(24, 16, 24, 16);
-            
-            // Alternate row colors
-            if (i % 2 == 0) {
-                row.setBackgroundColor(Color.parseColor("#F5F5F5"));
-            } else {
-                row.setBackgroundColor(Color.WHITE);
-            }
-            
-            // Rank
-            TextView rankView = createTableCell((i + 1) + "", 2, true);
-            row.addView(rankView);
-            
-            // Name
-            TextView nameView = createTableCell(entry.getName(), 4, false);
-            nameView.setPadding(16, 0, 16, 0);
-            row.addView(nameView);
-            
-            // Score
-            TextView scoreView = createTableCell(entry.getScore() + "", 2, true);
-            scoreView.setTextColor(Color.parseColor("#FEB21A"));
-            row.addView(scoreView);
-            
-            // Time
-            TextView timeView = createTableCell(entry.getFormattedTime(), 2, true);
-            timeView.setTextColor(Color.parseColor("#134686"));
-            row.addView(timeView);
-            
-            container.addView(row);
+
+    // Rank of this player plus the gap to the next place, without loading the board above them
+    private RequestHandle showPlayerRank(TextView playerRankTextView) {
+        String userName = sharedPreferences.getString(KEY_USER_NAME, "Player");
+        // Everyone above the player is known locally, show the rank before Dreamlo answers
+        int localRank = rankedLeaderboard.getRank(DreamloService.cleanName(userName));
+        if (localRank > 0 && localRank <= rankedTopRows) {
+            playerRankTextView.setText(getString(R.string.your_rank, localRank));
+            playerRankTextView.setVisibility(View.VISIBLE);
         }
+        return pagedLeaderboard().getRankWindow(userName, 1, new DreamloService.DreamloCallback<PagedLeaderboard.RankWindow>() {
+            @Override
+            public void onSuccess(PagedLeaderboard.RankWindow window) {
+                int rank = window.getPlayerRank();
+                LeaderboardSnapshot rows = window.getRows();
+                int playerRow = rank - window.getFirstRank();
+                if (playerRow > 0) {
+                    int gap = rows.getScore(playerRow - 1) - rows.getScore(playerRow);
+                    playerRankTextView.setText(getString(R.string.your_rank_next, rank, gap, rank - 1));
+                } else {
+                    playerRankTextView.setText(getString(R.string.your_rank, rank));
+                }
+                playerRankTextView.setVisibility(View.VISIBLE);
+            }
+
+            @Override
+            public void onError(String error) {
+                // Not ranked yet or offline, the list alone is fine
+            }
+        });
     }
     
-    private TextView createTableCell(String text, int weight, boolean center) {
-        TextView textView = new TextView(this);
-        textView.setText(text);
-        textView.setTextSize(14);
-        textView.setTextColor(Color.parseColor("#2C3E50"));
-        
-        android.widget.LinearLayout.LayoutParams params = new android.widget.LinearLayout.LayoutParams(
-            0,
-            android.widget.LinearLayout.LayoutParams.WRAP_CONTENT,
-            weight
-        );
-        textView.setLayoutParams(params);
-        
-        if (center) {
-            textView.setGravity(android.view.Gravity.CENTER);
-        }
-        
-        return textView;
-    }
-
     private void updateUI() {
-        scoreTextView.setText(String.valueOf(score));
-        attemptsTextView.setText(String.valueOf(attemptsLeft));
-        levelTextView.setText(String.valueOf(level));
+        scoreTextView.setText(String.valueOf(engine.getScore()));
+        attemptsTextView.setText(String.valueOf(engine.getAttemptsLeft()));
+        levelTextView.setText(String.valueOf(engine.getLevel()));
     }
 
     private void setFeedback(String message, int color) {
@@ -511,17 +851,40 @@ public class MainActivity extends AppCompatActivity {
         getHintButton.setEnabled(true);
     }
 
+    @Override
+    protected void onStop() {
+        super.onStop();
+        // The process may be killed any time after this
+        if (metricsExporter != null) {
+            metricsExporter.exportNow();
+        }
+    }
+
     @Override
     protected void onDestroy() {
         super.onDestroy();
         if (timerHandler != null) {
             timerHandler.removeCallbacks(timerRunnable);
         }
-        if (apiService != null) {
-            apiService.shutdown();
+        if (networkScheduler != null) {
+            // Nothing in flight may call back into this activity
+            endRound();
         }
-        if (dreamloService != null) {
-            dreamloService.shutdown();
+        if (wordPool != null) {
+            wordPool.shutdown();
+        }
+        if (leaderboardCache != null) {
+            leaderboardCache.shutdown();
+        }
+        if (scoreOutbox != null) {
+            scoreOutbox.shutdown();
+        }
+        if (networkScheduler != null) {
+            networkScheduler.shutdown();
+        }
+        if (metricsExporter != null) {
+            removeGauges();
+            metricsExporter.close();
         }
     }
 }
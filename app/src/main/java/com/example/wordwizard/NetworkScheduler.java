@@ -0,0 +1,233 @@
+package com.example.wordwizard;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the app's network work on one shared pool, ordered by {@link Lane}.
+ * Whenever a worker frees up, the queued task of the most urgent lane starts first, and each
+ * lane has its own cap on running tasks so a slow thesaurus call or a leaderboard refresh can't
+ * hold up the next word. Round-scoped lanes drop their queued tasks when a new round starts.
+ * Thread safe.
+ */
+public class NetworkScheduler {
+
+    /**
+     * Kinds of network work, most urgent first
+     */
+    public enum Lane {
+        // The word the player is waiting for
+        ROUND_WORD(2, true),
+        // A hint the player asked for
+        HINT(1, false),
+        LEADERBOARD_READ(1, false),
+        // Word pool refills, hint prefetches, score submissions and their retries
+        BACKGROUND(1, false);
+
+        final int maxRunning;
+        // Queued tasks of an older round are dropped by startRound()
+        final boolean roundScoped;
+
+        Lane(int maxRunning, boolean roundScoped) {
+            this.maxRunning = maxRunning;
+            this.roundScoped = roundScoped;
+        }
+    }
+
+    // Lower lanes can run at most 3 tasks together, so with 4 workers one is always left for the round word
+    public static final int DEFAULT_WORKERS = 4;
+
+    private final ExecutorService workers;
+    private final int maxRunning;
+    private final Map<Lane, ArrayDeque<Task>> queues = new EnumMap<>(Lane.class);
+    private final Map<Lane, Integer> running = new EnumMap<>(Lane.class);
+    // Queue waits in milliseconds, exported with the app's metrics
+    private final Map<Lane, LogLinearHistogram> queueWaits = new EnumMap<>(Lane.class);
+    private final AtomicInteger round = new AtomicInteger();
+    private int totalRunning = 0;
+    private boolean shutdown = false;
+
+    public NetworkScheduler() {
+        this(Executors.newFixedThreadPool(DEFAULT_WORKERS, runnable -> {
+            Thread thread = new Thread(runnable, "Network");
+            thread.setDaemon(true);
+            return thread;
+        }), DEFAULT_WORKERS);
+    }
+
+    /**
+     * @param workers Executor the tasks run on, owned by the scheduler from now on
+     * @param maxRunning Tasks running at once across all lanes, at most the executor's thread count
+     */
+    public NetworkScheduler(ExecutorService workers, int maxRunning) {
+        this(workers, maxRunning, MetricsRegistry.getDefault());
+    }
+
+    /**
+     * @param metrics Registry the "scheduler.LANE.wait.ms" queue wait histograms are kept in
+     */
+    NetworkScheduler(ExecutorService workers, int maxRunning, MetricsRegistry metrics) {
+        this.workers = workers;
+        this.maxRunning = maxRunning;
+        for (Lane lane : Lane.values()) {
+            queues.put(lane, new ArrayDeque<>());
+            running.put(lane, 0);
+            queueWaits.put(lane, metrics.histogram("scheduler." + lane + ".wait.ms"));
+        }
+    }
+
+    /**
+     * Queue a task. Cancelling the returned future removes it from the queue if it hasn't started.
+     * After {@link #shutdown()} the task never runs and the returned future is already cancelled.
+     */
+    public Future<?> submit(Lane lane, Runnable runnable) {
+        Task task = new Task(lane, round.get(), runnable);
+        synchronized (this) {
+            if (shutdown) {
+                task.cancel(false);
+                return task;
+            }
+            queues.get(lane).add(task);
+        }
+        dispatch();
+        return task;
+    }
+
+    /**
+     * Move a task that hasn't started to a more urgent lane, e.g. when the player starts waiting
+     * for something that was only prefetched
+     * @return false if the task already started or its lane is at least as urgent
+     */
+    public boolean promote(Future<?> future, Lane lane) {
+        if (!(future instanceof Task)) return false;
+        Task task = (Task) future;
+        synchronized (this) {
+            if (task.lane.compareTo(lane) <= 0 || !queues.get(task.lane).remove(task)) {
+                return false;
+            }
+            task.lane = lane;
+            queues.get(lane).add(task);
+        }
+        dispatch();
+        return true;
+    }
+
+    /**
+     * An Executor view of one lane, for code that just needs somewhere to run
+     */
+    public Executor lane(Lane lane) {
+        return runnable -> submit(lane, runnable);
+    }
+
+    /**
+     * Start a new round: queued tasks of round-scoped lanes from earlier rounds are cancelled
+     */
+    public void startRound() {
+        int current = round.incrementAndGet();
+        synchronized (this) {
+            for (Lane lane : Lane.values()) {
+                if (!lane.roundScoped) continue;
+                Iterator<Task> tasks = queues.get(lane).iterator();
+                while (tasks.hasNext()) {
+                    Task task = tasks.next();
+                    if (task.round < current) {
+                        tasks.remove();
+                        task.cancel(false);
+                    }
+                }
+            }
+        }
+    }
+
+    // Start as many queued tasks as the caps allow, most urgent lane first
+    private void dispatch() {
+        while (true) {
+            Task next = null;
+            synchronized (this) {
+                if (totalRunning >= maxRunning || workers.isShutdown()) return;
+                for (Lane lane : Lane.values()) {
+                    ArrayDeque<Task> queue = queues.get(lane);
+                    // Skip tasks cancelled while queued
+                    while (!queue.isEmpty() && queue.peek().isCancelled()) {
+                        queue.poll();
+                    }
+                    if (!queue.isEmpty() && running.get(lane) < lane.maxRunning) {
+                        next = queue.poll();
+                        running.put(lane, running.get(lane) + 1);
+                        totalRunning++;
+                        break;
+                    }
+                }
+                if (next == null) return;
+            }
+            queueWaits.get(next.lane).record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - next.queuedAt));
+            workers.execute(next);
+        }
+    }
+
+    private void finished(Task task) {
+        synchronized (this) {
+            running.put(task.lane, running.get(task.lane) - 1);
+            totalRunning--;
+        }
+        dispatch();
+    }
+
+    /**
+     * How long tasks of a lane waited in the queue before starting, in milliseconds
+     */
+    public LogLinearHistogram getQueueWait(Lane lane) {
+        return queueWaits.get(lane);
+    }
+
+    public synchronized int getQueuedCount(Lane lane) {
+        return queues.get(lane).size();
+    }
+
+    /**
+     * Drop queued tasks and stop the workers. Running requests finish in the background.
+     */
+    public void shutdown() {
+        synchronized (this) {
+            shutdown = true;
+            for (ArrayDeque<Task> queue : queues.values()) {
+                for (Task task : queue) {
+                    task.cancel(false);
+                }
+                queue.clear();
+            }
+        }
+        workers.shutdown();
+    }
+
+    private class Task extends FutureTask<Void> {
+        // Only changes while queued, under the scheduler's lock
+        Lane lane;
+        final int round;
+        final long queuedAt = System.nanoTime();
+
+        Task(Lane lane, int round, Runnable runnable) {
+            super(runnable, null);
+            this.lane = lane;
+            this.round = round;
+        }
+
+        @Override
+        public void run() {
+            try {
+                super.run();
+            } finally {
+                finished(this);
+            }
+        }
+    }
+}
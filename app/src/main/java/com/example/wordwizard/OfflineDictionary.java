@@ -0,0 +1,176 @@
+package com.example.wordwizard;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Bundled word list for playing without network access.
+ *
+ * The dictionary is a memory-mapped binary file (big-endian):
+ * <pre>
+ * int magic ("WWD1")
+ * int maxLength
+ * maxLength x (int offset, int count)   one entry per word length, starting at 1
+ * word data                             words of each length stored back to back, ASCII, fixed width
+ * </pre>
+ * Only the small header is read when opening, picking a word is a direct index into the mapping.
+ * Callbacks are invoked right away on the calling thread.
+ */
+public class OfflineDictionary implements WordSource {
+
+    public static final String ASSET_NAME = "words.wwd";
+
+    private static final int MAGIC = 0x57574431; // "WWD1"
+    private static final int HEADER_SIZE = 8;
+    private static final int ENTRY_SIZE = 8;
+
+    private final ByteBuffer data;
+    private final int maxLength;
+    private final int[] offsets;
+    private final int[] counts;
+    // Number of words with at least the given length
+    private final int[] countAtLeast;
+    private final Random random = new Random();
+
+    public OfflineDictionary(ByteBuffer data) throws IOException {
+        this.data = data;
+        if (data.capacity() < HEADER_SIZE || data.getInt(0) != MAGIC) {
+            throw new IOException("Not a word dictionary");
+        }
+        this.maxLength = data.getInt(4);
+        this.offsets = new int[maxLength + 2];
+        this.counts = new int[maxLength + 2];
+        this.countAtLeast = new int[maxLength + 2];
+
+        for (int length = 1; length <= maxLength; length++) {
+            int entry = HEADER_SIZE + (length - 1) * ENTRY_SIZE;
+            offsets[length] = data.getInt(entry);
+            counts[length] = data.getInt(entry + 4);
+        }
+        for (int length = maxLength; length >= 1; length--) {
+            countAtLeast[length] = countAtLeast[length + 1] + counts[length];
+        }
+    }
+
+    /**
+     * Map the dictionary shipped in the app assets (stored uncompressed, see build.gradle.kts)
+     */
+    public static OfflineDictionary open(Context context) throws IOException {
+        try (AssetFileDescriptor descriptor = context.getAssets().openFd(ASSET_NAME);
+             FileInputStream input = descriptor.createInputStream()) {
+            FileChannel channel = input.getChannel();
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                    descriptor.getStartOffset(), descriptor.getLength());
+            return new OfflineDictionary(buffer);
+        }
+    }
+
+    /**
+     * Map a dictionary file from disk
+     */
+    public static OfflineDictionary open(File file) throws IOException {
+        try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            FileChannel channel = input.getChannel();
+            return new OfflineDictionary(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Write a word list in the dictionary format.
+     * Words are lowercased, anything that is not plain a-z is skipped.
+     */
+    public static void write(List<String> words, OutputStream output) throws IOException {
+        List<List<String>> byLength = new ArrayList<>();
+        byLength.add(new ArrayList<>());
+        for (String raw : words) {
+            String word = raw.trim().toLowerCase();
+            if (word.isEmpty() || !word.matches("[a-z]+")) continue;
+            while (byLength.size() <= word.length()) {
+                byLength.add(new ArrayList<>());
+            }
+            byLength.get(word.length()).add(word);
+        }
+
+        int maxLength = byLength.size() - 1;
+        DataOutputStream out = new DataOutputStream(output);
+        out.writeInt(MAGIC);
+        out.writeInt(maxLength);
+        int offset = HEADER_SIZE + maxLength * ENTRY_SIZE;
+        for (int length = 1; length <= maxLength; length++) {
+            int count = byLength.get(length).size();
+            out.writeInt(offset);
+            out.writeInt(count);
+            offset += count * length;
+        }
+        for (int length = 1; length <= maxLength; length++) {
+            for (String word : byLength.get(length)) {
+                out.write(word.getBytes(StandardCharsets.US_ASCII));
+            }
+        }
+        out.flush();
+    }
+
+    @Override
+    public RequestHandle getRandomWord(ApiService.ApiCallback<String> callback) {
+        return getRandomWordWithLength(1, callback);
+    }
+
+    @Override
+    public RequestHandle getRandomWordWithLength(int minLength, ApiService.ApiCallback<String> callback) {
+        String word = pickWord(minLength);
+        if (word != null) {
+            callback.onSuccess(word);
+        } else {
+            callback.onError("No word with " + minLength + " letters found");
+        }
+        // Answered synchronously, nothing left to cancel
+        return RequestHandle.completed();
+    }
+
+    /**
+     * Pick a random word with at least minLength letters
+     * @return the word, or null if the dictionary has no word that long
+     */
+    public String pickWord(int minLength) {
+        int start = Math.max(minLength, 1);
+        if (start > maxLength || countAtLeast[start] == 0) {
+            return null;
+        }
+
+        int index = random.nextInt(countAtLeast[start]);
+        for (int length = start; length <= maxLength; length++) {
+            if (index < counts[length]) {
+                return readWord(offsets[length] + index * length, length);
+            }
+            index -= counts[length];
+        }
+        return null;
+    }
+
+    // Number of words with at least minLength letters
+    public int countWords(int minLength) {
+        int start = Math.max(minLength, 1);
+        return start > maxLength ? 0 : countAtLeast[start];
+    }
+
+    private String readWord(int position, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) data.get(position + i);
+        }
+        return new String(chars);
+    }
+}
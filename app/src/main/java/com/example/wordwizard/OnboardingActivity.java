@@ -22,12 +22,11 @@ public class OnboardingActivity extends AppCompatActivity {
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
-        setContentView(R.layout.activity_onboarding);
 
         // Initialize SharedPreferences
         sharedPreferences = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
 
-        // Check if user has already onboarded
+        // Check if user has already onboarded, before inflating a layout they would never see
         boolean isFirstTime = sharedPreferences.getBoolean(KEY_IS_FIRST_TIME, true);
         if (!isFirstTime) {
             // User has already onboarded, go directly to MainActivity
@@ -35,6 +34,10 @@ public class OnboardingActivity extends AppCompatActivity {
             return;
         }
 
+        // Connect to the word API while the player types their name
+        HttpClients.prewarm(this, Endpoints.PRODUCTION.randomWordUrl());
+        setContentView(R.layout.activity_onboarding);
+
         // Initialize views
         nameEditText = findViewById(R.id.nameEditText);
         startButton = findViewById(R.id.startButton);
@@ -0,0 +1,277 @@
+package com.example.wordwizard;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.io.IOException;
+
+/**
+ * Leaderboard loaded a page at a time into a {@link LeaderboardIndex}.
+ * The list grows with {@link #loadMore} as the user scrolls, and {@link #getRankWindow} finds a
+ * player's rank with a handful of one-row probes instead of downloading everything above them.
+ * The index lock is only held to read or update the index, never across a request.
+ * Call from the main thread, callbacks run on the main thread.
+ */
+public class PagedLeaderboard {
+
+    // Pages of tied scores to look through for a player before giving up
+    private static final int MAX_TIE_PAGES = 4;
+
+    private final DreamloService dreamloService;
+    private final NetworkScheduler scheduler;
+    // Only touched by scheduler tasks, which hold its lock while they do
+    private final LeaderboardIndex index;
+    private final Handler mainHandler;
+
+    private RequestHandle loadMoreRequest;
+
+    /**
+     * Rows around a player. Ranks are 1-based.
+     */
+    public static class RankWindow {
+        private final int firstRank;
+        private final int playerRank;
+        private final LeaderboardSnapshot rows;
+
+        RankWindow(int firstRank, int playerRank, LeaderboardSnapshot rows) {
+            this.firstRank = firstRank;
+            this.playerRank = playerRank;
+            this.rows = rows;
+        }
+
+        public int getFirstRank() {
+            return firstRank;
+        }
+
+        public int getPlayerRank() {
+            return playerRank;
+        }
+
+        public LeaderboardSnapshot getRows() {
+            return rows;
+        }
+    }
+
+    public PagedLeaderboard(DreamloService dreamloService, NetworkScheduler scheduler, int pageSize) {
+        this.dreamloService = dreamloService;
+        this.scheduler = scheduler;
+        this.index = new LeaderboardIndex(pageSize);
+        this.mainHandler = new Handler(Looper.getMainLooper());
+    }
+
+    /**
+     * Use an already fetched top page (e.g. from LeaderboardCache) as the first page.
+     * Delivers the rows loaded from the top so far.
+     */
+    public RequestHandle setFirstPage(LeaderboardSnapshot firstPage,
+                                      DreamloService.DreamloCallback<LeaderboardSnapshot> callback) {
+        RequestHandle handle = new RequestHandle();
+        handle.setTask(scheduler.submit(NetworkScheduler.Lane.LEADERBOARD_READ, () -> {
+            LeaderboardSnapshot prefix;
+            synchronized (index) {
+                index.putPage(0, firstPage.top(index.getPageSize()));
+                prefix = index.prefix();
+            }
+            handle.post(mainHandler, () -> callback.onSuccess(prefix));
+        }));
+        return handle;
+    }
+
+    /**
+     * Fetch the page after the ones loaded from the top and deliver all rows loaded so far.
+     * While a previous call is still loading, returns its handle and does nothing else.
+     */
+    public RequestHandle loadMore(DreamloService.DreamloCallback<LeaderboardSnapshot> callback) {
+        if (loadMoreRequest != null && !loadMoreRequest.isCancelled()) {
+            return loadMoreRequest;
+        }
+        RequestHandle handle = new RequestHandle();
+        loadMoreRequest = handle;
+
+        handle.setTask(scheduler.submit(NetworkScheduler.Lane.LEADERBOARD_READ, () -> {
+            try {
+                int page = -1;
+                synchronized (index) {
+                    if (!index.isPrefixComplete()) {
+                        page = index.prefixPages();
+                    }
+                }
+                if (page >= 0) {
+                    loadPage(page, handle);
+                }
+                LeaderboardSnapshot prefix;
+                synchronized (index) {
+                    prefix = index.prefix();
+                }
+                handle.post(mainHandler, () -> {
+                    loadMoreRequest = null;
+                    callback.onSuccess(prefix);
+                });
+            } catch (IOException e) {
+                handle.post(mainHandler, () -> {
+                    loadMoreRequest = null;
+                    callback.onError("Network error: " + e.getMessage());
+                });
+            }
+        }));
+        return handle;
+    }
+
+    /**
+     * Find a player's rank and the {@code radius} rows above and below them
+     */
+    public RequestHandle getRankWindow(String playerName, int radius,
+                                       DreamloService.DreamloCallback<RankWindow> callback) {
+        RequestHandle handle = new RequestHandle();
+        new RankSearch(DreamloService.cleanName(playerName), radius, handle, callback).submit();
+        return handle;
+    }
+
+    /**
+     * A rank search run as one lane task per request, so page loads and refreshes queued
+     * meanwhile take their turn between its probes instead of waiting for all of them
+     */
+    private class RankSearch implements Runnable {
+        private final String name;
+        private final int radius;
+        private final RequestHandle handle;
+        private final DreamloService.DreamloCallback<RankWindow> callback;
+        // The player's own row, fetched when the index doesn't have them yet
+        private LeaderboardEntry player;
+        // Next page of tied scores to look through for the name, and how many more may be
+        private int tiePage = -1;
+        private int tiePagesLeft = MAX_TIE_PAGES;
+
+        RankSearch(String name, int radius, RequestHandle handle,
+                   DreamloService.DreamloCallback<RankWindow> callback) {
+            this.name = name;
+            this.radius = radius;
+            this.handle = handle;
+            this.callback = callback;
+        }
+
+        void submit() {
+            if (!handle.isCancelled()) {
+                handle.setTask(scheduler.submit(NetworkScheduler.Lane.LEADERBOARD_READ, this));
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (step()) {
+                    submit();
+                }
+            } catch (IOException e) {
+                handle.post(mainHandler, () -> callback.onError("Network error: " + e.getMessage()));
+            }
+        }
+
+        // Makes at most one request, returns whether there is more to do
+        private boolean step() throws IOException {
+            int row;
+            synchronized (index) {
+                row = index.rowOf(name);
+            }
+            if (row >= 0) {
+                return loadWindow(row);
+            }
+            if (player == null) {
+                player = dreamloService.fetchPlayer(name, handle);
+                if (player == null) {
+                    notFound();
+                    return false;
+                }
+                return true;
+            }
+
+            // Binary search by score, then look through the tied rows for the name
+            int probe;
+            synchronized (index) {
+                probe = index.nextProbe(player.getScore());
+                if (probe < 0 && tiePage < 0) {
+                    tiePage = index.pageOf(index.lowerBound(player.getScore()));
+                }
+            }
+            if (probe >= 0) {
+                LeaderboardSnapshot rows = dreamloService.fetchPage(probe, 1, handle);
+                synchronized (index) {
+                    index.putProbe(probe, rows);
+                }
+                return true;
+            }
+            if (tiePagesLeft > 0 && !loadPage(tiePage, handle).isEmpty()) {
+                tiePage++;
+                tiePagesLeft--;
+                return true;
+            }
+            notFound();
+            return false;
+        }
+
+        // Load the pages around the player's row one per step, then deliver them
+        private boolean loadWindow(int row) throws IOException {
+            int from = Math.max(row - radius, 0);
+            int to = row + radius + 1;
+            int missing = -1;
+            synchronized (index) {
+                for (int page = index.pageOf(from); page <= index.pageOf(to - 1) && missing < 0; page++) {
+                    if (needsPage(page)) {
+                        missing = page;
+                    }
+                }
+            }
+            if (missing >= 0) {
+                loadPage(missing, handle);
+                return true;
+            }
+
+            RankWindow window;
+            synchronized (index) {
+                int size = index.knownSize();
+                if (size >= 0) {
+                    to = Math.min(to, size);
+                }
+                window = new RankWindow(from + 1, row + 1, index.rows(from, to));
+            }
+            handle.post(mainHandler, () -> callback.onSuccess(window));
+            return false;
+        }
+
+        private void notFound() {
+            handle.post(mainHandler, () -> callback.onError("Not on the leaderboard yet"));
+        }
+    }
+
+    // Called holding the index lock
+    private boolean needsPage(int page) {
+        int size = index.knownSize();
+        return (size < 0 || page * index.getPageSize() < size) && !index.hasPage(page);
+    }
+
+    // A page of the index, fetched first if needed; empty past the end of the board
+    private LeaderboardSnapshot loadPage(int page, RequestHandle handle) throws IOException {
+        int pageSize = index.getPageSize();
+        synchronized (index) {
+            if (!needsPage(page)) {
+                return index.getPage(page);
+            }
+        }
+        LeaderboardSnapshot rows = dreamloService.fetchPage(page * pageSize, pageSize, handle);
+        synchronized (index) {
+            index.putPage(page, rows);
+            return index.getPage(page);
+        }
+    }
+
+    /**
+     * Drop everything loaded, e.g. after submitting a score moved the ranks
+     */
+    public void invalidate() {
+        scheduler.submit(NetworkScheduler.Lane.LEADERBOARD_READ, () -> {
+            synchronized (index) {
+                index.clear();
+            }
+        });
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.wordwizard;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single-pass parser for Dreamlo's pipe format (name|score|seconds|text|date, one entry per line).
+ * Reads the response bytes in chunks, finds the delimiters by hand and parses the numbers in place,
+ * so the only objects created are the ones the {@link RowHandler} asks for.
+ * An instance reuses its buffer between calls and is not thread safe.
+ */
+public class PipeLeaderboardParser {
+
+    private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+
+    /**
+     * Receives each valid row. Text fields are given as byte ranges of {@code line},
+     * which is only valid during the call.
+     */
+    public interface RowHandler {
+        void onRow(byte[] line, int nameStart, int nameEnd, int score, int seconds,
+                   int textStart, int textEnd, int dateStart, int dateEnd);
+    }
+
+    private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+    // Field boundaries of the current line
+    private final int[] fieldStarts = new int[5];
+    private final int[] fieldEnds = new int[5];
+
+    /**
+     * Parse a whole response into entries
+     */
+    public List<LeaderboardEntry> parse(InputStream input) throws IOException {
+        List<LeaderboardEntry> entries = new ArrayList<>();
+        parse(input, (line, nameStart, nameEnd, score, seconds, textStart, textEnd, dateStart, dateEnd) ->
+                entries.add(new LeaderboardEntry(
+                        decode(line, nameStart, nameEnd), score, seconds,
+                        decode(line, textStart, textEnd), decode(line, dateStart, dateEnd))));
+        return entries;
+    }
+
+    /**
+     * Parse a whole response, handing every valid row to the handler.
+     * Rows with fewer than three fields or with invalid numbers are skipped.
+     */
+    public void parse(InputStream input, RowHandler handler) throws IOException {
+        int filled = 0;
+        int read;
+        while ((read = input.read(buffer, filled, buffer.length - filled)) != -1) {
+            filled += read;
+            int consumed = parseLines(filled, handler);
+
+            // Keep the incomplete last line for the next chunk
+            int remaining = filled - consumed;
+            if (consumed > 0) {
+                System.arraycopy(buffer, consumed, buffer, 0, remaining);
+            } else if (remaining == buffer.length) {
+                byte[] larger = new byte[buffer.length * 2];
+                System.arraycopy(buffer, 0, larger, 0, remaining);
+                buffer = larger;
+            }
+            filled = remaining;
+        }
+        if (filled > 0) {
+            parseLine(0, filled, handler);
+        }
+    }
+
+    /**
+     * Parse a response that is already in memory
+     */
+    public void parse(byte[] data, int length, RowHandler handler) {
+        int lineStart = 0;
+        for (int i = 0; i < length; i++) {
+            if (data[i] == '\n') {
+                parseLine(data, lineStart, i, handler);
+                lineStart = i + 1;
+            }
+        }
+        if (lineStart < length) {
+            parseLine(data, lineStart, length, handler);
+        }
+    }
+
+    // Parse the complete lines in the buffer, returns where the unfinished line starts
+    private int parseLines(int filled, RowHandler handler) {
+        int lineStart = 0;
+        for (int i = 0; i < filled; i++) {
+            if (buffer[i] == '\n') {
+                parseLine(lineStart, i, handler);
+                lineStart = i + 1;
+            }
+        }
+        return lineStart;
+    }
+
+    private void parseLine(int start, int end, RowHandler handler) {
+        parseLine(buffer, start, end, handler);
+    }
+
+    private void parseLine(byte[] line, int start, int end, RowHandler handler) {
+        if (end > start && line[end - 1] == '\r') end--;
+
+        int fields = 0;
+        int fieldStart = start;
+        for (int i = start; i <= end && fields < fieldStarts.length; i++) {
+            if (i == end || line[i] == '|') {
+                fieldStarts[fields] = fieldStart;
+                fieldEnds[fields] = i;
+                fields++;
+                fieldStart = i + 1;
+            }
+        }
+        if (fields < 3) return;
+
+        long score = parseInt(line, fieldStarts[1], fieldEnds[1]);
+        long seconds = parseInt(line, fieldStarts[2], fieldEnds[2]);
+        if (score == Long.MIN_VALUE || seconds == Long.MIN_VALUE) return;
+
+        int textStart = fields > 3 ? fieldStarts[3] : end;
+        int textEnd = fields > 3 ? fieldEnds[3] : end;
+        int dateStart = fields > 4 ? fieldStarts[4] : end;
+        int dateEnd = fields > 4 ? fieldEnds[4] : end;
+        handler.onRow(line, fieldStarts[0], fieldEnds[0], (int) score, (int) seconds,
+                textStart, textEnd, dateStart, dateEnd);
+    }
+
+    /**
+     * Parse a decimal int the way Integer.parseInt would
+     * @return the value, or Long.MIN_VALUE if the range is not a valid int
+     */
+    static long parseInt(byte[] data, int start, int end) {
+        if (start >= end) return Long.MIN_VALUE;
+
+        boolean negative = data[start] == '-';
+        int i = negative || data[start] == '+' ? start + 1 : start;
+        if (i == end) return Long.MIN_VALUE;
+
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = data[i] - '0';
+            if (digit < 0 || digit > 9) return Long.MIN_VALUE;
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) return Long.MIN_VALUE;
+        }
+        value = negative ? -value : value;
+        return value > Integer.MAX_VALUE ? Long.MIN_VALUE : value;
+    }
+
+    static String decode(byte[] data, int start, int end) {
+        return start == end ? "" : new String(data, start, end - start, StandardCharsets.UTF_8);
+    }
+}
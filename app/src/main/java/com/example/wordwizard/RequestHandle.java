@@ -0,0 +1,75 @@
+package com.example.wordwizard;
+
+import android.os.Handler;
+
+import java.io.IOException;
+import java.util.concurrent.Future;
+
+import okhttp3.Call;
+
+/**
+ * Handle to a running service request.
+ * {@link #cancel()} drops the queued task, aborts the HTTP call in flight and makes sure the
+ * callback never runs, even if the result was already on its way to the main thread.
+ */
+public class RequestHandle {
+
+    private volatile boolean cancelled = false;
+    private volatile Future<?> task;
+    private volatile Call call;
+
+    /**
+     * Handle for a request that was answered right away, e.g. from a local source
+     */
+    public static RequestHandle completed() {
+        return new RequestHandle();
+    }
+
+    public void cancel() {
+        cancelled = true;
+        Future<?> currentTask = task;
+        if (currentTask != null) {
+            currentTask.cancel(false);
+        }
+        Call currentCall = call;
+        if (currentCall != null) {
+            currentCall.cancel();
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    void setTask(Future<?> task) {
+        this.task = task;
+        if (cancelled) {
+            task.cancel(false);
+        }
+    }
+
+    /**
+     * Remember the call about to be executed so cancel() can abort it
+     * @throws IOException if the request was cancelled already
+     */
+    Call track(Call call) throws IOException {
+        this.call = call;
+        if (cancelled) {
+            call.cancel();
+            throw new IOException("Canceled");
+        }
+        return call;
+    }
+
+    /**
+     * Post a callback to the main thread, skipped if the request is cancelled before it runs
+     */
+    void post(Handler mainHandler, Runnable callback) {
+        if (cancelled) return;
+        mainHandler.post(() -> {
+            if (!cancelled) {
+                callback.run();
+            }
+        });
+    }
+}
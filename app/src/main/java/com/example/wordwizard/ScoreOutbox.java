@@ -0,0 +1,321 @@
+package com.example.wordwizard;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durable queue of score submissions.
+ * Every score is appended to a log file before anything is sent, so it survives the app being
+ * killed, and the log is drained to Dreamlo on the scheduler's background lane. Scores of the
+ * same player are sent as one request with their best score, since Dreamlo only keeps a
+ * player's best anyway.
+ * Failed drains are retried with exponential backoff.
+ *
+ * Log format, one record per line:
+ * <pre>
+ * ADD id name score seconds level createdAt
+ * ACK id
+ * </pre>
+ * The id only dedupes locally: once its ACK is written the score is never sent again. It is not
+ * sent to Dreamlo, so a retry after a lost response posts the score a second time; Dreamlo keeps
+ * a player's best score, so the repeat leaves the leaderboard as it was.
+ */
+public class ScoreOutbox {
+
+    // Wait a little after a score so bursts of wins go out together
+    private static final long BATCH_DELAY_MS = 2_000;
+    private static final long MIN_BACKOFF_MS = 5_000;
+    private static final long MAX_BACKOFF_MS = 10 * 60_000;
+    // Rewrite the log once this many acknowledged records pile up
+    private static final int COMPACT_AFTER_ACKS = 50;
+
+    public interface Listener {
+        // Some queued scores reached the leaderboard
+        void onScoresSubmitted(int count);
+    }
+
+    private final DreamloService dreamloService;
+    private final NetworkScheduler scheduler;
+    private final File logFile;
+    private final long batchDelayMs;
+    private final long minBackoffMs;
+    private final ScheduledExecutorService worker;
+    private final Handler mainHandler;
+    private final Random random = new Random();
+
+    // Everything below is only touched on the worker thread
+    private final Map<String, PendingScore> pending = new LinkedHashMap<>();
+    private int ackedRecords = 0;
+    private int failedDrains = 0;
+    private boolean draining = false;
+    // The drain's requests, cancelled on shutdown
+    private volatile RequestHandle drainRequest;
+    private ScheduledFuture<?> scheduledDrain;
+    private Listener listener;
+
+    public ScoreOutbox(DreamloService dreamloService, NetworkScheduler scheduler, File logFile) {
+        this(dreamloService, scheduler, logFile, BATCH_DELAY_MS, MIN_BACKOFF_MS);
+    }
+
+    // Shorter delays for tests
+    ScoreOutbox(DreamloService dreamloService, NetworkScheduler scheduler, File logFile, long batchDelayMs,
+                long minBackoffMs) {
+        this.dreamloService = dreamloService;
+        this.scheduler = scheduler;
+        this.logFile = logFile;
+        this.batchDelayMs = batchDelayMs;
+        this.minBackoffMs = minBackoffMs;
+        this.worker = Executors.newSingleThreadScheduledExecutor();
+        this.mainHandler = new Handler(Looper.getMainLooper());
+
+        // Pick up whatever was left by the previous run
+        worker.execute(() -> {
+            replayLog();
+            if (!pending.isEmpty()) {
+                scheduleDrain(0);
+            }
+        });
+    }
+
+    public void setListener(Listener listener) {
+        worker.execute(() -> this.listener = listener);
+    }
+
+    /**
+     * Queue a score. Returns immediately, the log write and the request happen on the worker.
+     */
+    public void submit(String playerName, int score, int seconds, int level) {
+        PendingScore entry = new PendingScore(UUID.randomUUID().toString(),
+                DreamloService.cleanName(playerName), score, seconds, level, System.currentTimeMillis());
+        worker.execute(() -> {
+            pending.put(entry.id, entry);
+            append("ADD " + entry.id + " " + entry.name + " " + entry.score + " " + entry.seconds
+                    + " " + entry.level + " " + entry.createdAt);
+            if (failedDrains == 0) {
+                scheduleDrain(batchDelayMs);
+            }
+        });
+    }
+
+    /**
+     * Retry right away, e.g. when the network comes back
+     */
+    public void flush() {
+        worker.execute(() -> {
+            failedDrains = 0;
+            scheduleDrain(0);
+        });
+    }
+
+    private void scheduleDrain(long delayMs) {
+        if (scheduledDrain != null && !scheduledDrain.isDone()) {
+            if (scheduledDrain.getDelay(TimeUnit.MILLISECONDS) <= delayMs) return;
+            scheduledDrain.cancel(false);
+        }
+        scheduledDrain = worker.schedule(this::drain, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void drain() {
+        if (pending.isEmpty() || draining) return;
+
+        // One request per player with their best score (highest score, then fastest time)
+        Map<String, List<PendingScore>> byPlayer = new LinkedHashMap<>();
+        for (PendingScore entry : pending.values()) {
+            List<PendingScore> entries = byPlayer.get(entry.name);
+            if (entries == null) {
+                entries = new ArrayList<>();
+                byPlayer.put(entry.name, entries);
+            }
+            entries.add(entry);
+        }
+
+        // The requests run on the scheduler's background lane, the results come back to the worker
+        draining = true;
+        List<List<PendingScore>> batches = new ArrayList<>(byPlayer.values());
+        RequestHandle request = new RequestHandle();
+        drainRequest = request;
+        try {
+            request.setTask(scheduler.submit(NetworkScheduler.Lane.BACKGROUND, () -> {
+                List<List<PendingScore>> sent = new ArrayList<>();
+                try {
+                    for (List<PendingScore> entries : batches) {
+                        PendingScore best = entries.get(0);
+                        for (PendingScore entry : entries) {
+                            if (entry.score > best.score || (entry.score == best.score && entry.seconds < best.seconds)) {
+                                best = entry;
+                            }
+                        }
+                        dreamloService.postScore(best.name, best.score, best.seconds, best.level, request);
+                        sent.add(entries);
+                    }
+                } catch (IOException e) {
+                    // Retried with backoff, the scores sent so far are acknowledged
+                } finally {
+                    // Also after an unexpected exception, or the outbox would never drain again
+                    boolean drainFailed = sent.size() < batches.size();
+                    if (!worker.isShutdown()) {
+                        worker.execute(() -> onDrained(sent, drainFailed));
+                    }
+                }
+            }));
+        } catch (RuntimeException e) {
+            draining = false;
+            throw e;
+        }
+    }
+
+    private void onDrained(List<List<PendingScore>> sent, boolean failed) {
+        draining = false;
+        int submitted = 0;
+        for (List<PendingScore> entries : sent) {
+            for (PendingScore entry : entries) {
+                pending.remove(entry.id);
+                append("ACK " + entry.id);
+                ackedRecords++;
+            }
+            submitted += entries.size();
+        }
+        notifySubmitted(submitted);
+
+        if (failed) {
+            failedDrains++;
+            scheduleDrain(backoffDelay());
+            return;
+        }
+        failedDrains = 0;
+        if (ackedRecords >= COMPACT_AFTER_ACKS) {
+            compact();
+        }
+        // Scores queued while the requests were running
+        if (!pending.isEmpty()) {
+            scheduleDrain(batchDelayMs);
+        }
+    }
+
+    // Exponential backoff with jitter
+    private long backoffDelay() {
+        long delay = minBackoffMs << Math.min(failedDrains - 1, 16);
+        delay = Math.min(delay, MAX_BACKOFF_MS);
+        return delay / 2 + (long) (random.nextDouble() * delay / 2);
+    }
+
+    private void notifySubmitted(int count) {
+        Listener current = listener;
+        if (count > 0 && current != null) {
+            mainHandler.post(() -> current.onScoresSubmitted(count));
+        }
+    }
+
+    private void append(String record) {
+        try (FileOutputStream output = new FileOutputStream(logFile, true)) {
+            Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+            writer.write(record);
+            writer.write('\n');
+            writer.flush();
+            output.getFD().sync();
+        } catch (IOException e) {
+            // The score stays queued in memory and is retried while the app runs
+        }
+    }
+
+    private void replayLog() {
+        if (!logFile.exists()) return;
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(logFile))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(" ");
+                if (fields.length == 7 && fields[0].equals("ADD")) {
+                    try {
+                        PendingScore entry = new PendingScore(fields[1], fields[2],
+                                Integer.parseInt(fields[3]), Integer.parseInt(fields[4]),
+                                Integer.parseInt(fields[5]), Long.parseLong(fields[6]));
+                        pending.put(entry.id, entry);
+                    } catch (NumberFormatException e) {
+                        // Torn write at the end of the log, skip it
+                    }
+                } else if (fields.length == 2 && fields[0].equals("ACK")) {
+                    pending.remove(fields[1]);
+                    ackedRecords++;
+                }
+            }
+        } catch (IOException e) {
+            // Nothing readable to recover
+        }
+    }
+
+    // Rewrite the log with only the scores that are still pending
+    private void compact() {
+        File temp = new File(logFile.getPath() + ".tmp");
+        try (FileOutputStream output = new FileOutputStream(temp)) {
+            Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+            for (PendingScore entry : pending.values()) {
+                writer.write("ADD " + entry.id + " " + entry.name + " " + entry.score + " " + entry.seconds
+                        + " " + entry.level + " " + entry.createdAt + "\n");
+            }
+            writer.flush();
+            output.getFD().sync();
+        } catch (IOException e) {
+            temp.delete();
+            return;
+        }
+        if (temp.renameTo(logFile)) {
+            ackedRecords = 0;
+        } else {
+            temp.delete();
+        }
+    }
+
+    /**
+     * Scores not acknowledged yet, read on the worker, for tests
+     */
+    int getPendingCount() throws Exception {
+        return worker.submit(pending::size).get();
+    }
+
+    public void shutdown() {
+        // Anything not acknowledged yet is still in the log and goes out on the next launch
+        worker.shutdownNow();
+        RequestHandle request = drainRequest;
+        if (request != null) {
+            request.cancel();
+        }
+    }
+
+    private static class PendingScore {
+        final String id;
+        final String name;
+        final int score;
+        final int seconds;
+        final int level;
+        final long createdAt;
+
+        PendingScore(String id, String name, int score, int seconds, int level, long createdAt) {
+            this.id = id;
+            this.name = name;
+            this.score = score;
+            this.seconds = seconds;
+            this.level = level;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.example.wordwizard;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Two-tier cache in front of the thesaurus API used for hints.
+ * Lookups go memory (LRU) -> disk (one small file per word) -> network, and entries
+ * expire after the TTL in both tiers. Concurrent misses for the same word share one request.
+ * Call from the main thread, callbacks are delivered on the main thread.
+ */
+public class SynonymCache {
+
+    private final ApiService apiService;
+    private final File directory;
+    private final long ttlMillis;
+    private final LinkedHashMap<String, CachedSynonyms> memory;
+    // Lookups that are already running, by word
+    private final Map<String, PendingLookup> pending = new HashMap<>();
+    private final NetworkScheduler scheduler;
+    private final Handler mainHandler;
+
+    // Stats to show how much thesaurus quota the cache saves
+    private final AtomicInteger memoryHits = new AtomicInteger();
+    private final AtomicInteger diskHits = new AtomicInteger();
+    private final AtomicInteger networkFetches = new AtomicInteger();
+    private final AtomicInteger mergedRequests = new AtomicInteger();
+
+    public SynonymCache(ApiService apiService, NetworkScheduler scheduler, File directory, int memoryCapacity,
+                        long ttlMillis) {
+        this.apiService = apiService;
+        this.scheduler = scheduler;
+        this.directory = directory;
+        this.ttlMillis = ttlMillis;
+        this.memory = new LinkedHashMap<String, CachedSynonyms>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedSynonyms> eldest) {
+                return size() > memoryCapacity;
+            }
+        };
+        this.mainHandler = new Handler(Looper.getMainLooper());
+    }
+
+    /**
+     * Get synonyms for a word, from the cache when possible
+     */
+    public void getSynonyms(String word, final ApiService.ApiCallback<List<String>> callback) {
+        lookup(word, callback, NetworkScheduler.Lane.HINT);
+    }
+
+    /**
+     * Warm the cache for a word in the background at low priority.
+     * A getSynonyms call for the same word made meanwhile joins this lookup and, if it hasn't
+     * started yet, moves it to the hint lane.
+     * Use {@link #cancel(String, ApiService.ApiCallback)} when the result is no longer needed.
+     */
+    public void prefetch(String word, final ApiService.ApiCallback<List<String>> callback) {
+        lookup(word, callback, NetworkScheduler.Lane.BACKGROUND);
+    }
+
+    /**
+     * Stop waiting for a lookup. Once nobody is waiting for it, the request itself is cancelled,
+     * including an HTTP call already in flight.
+     */
+    public void cancel(String word, ApiService.ApiCallback<List<String>> callback) {
+        String key = word.toLowerCase();
+        PendingLookup lookup = pending.get(key);
+        if (lookup == null) return;
+
+        lookup.callbacks.remove(callback);
+        if (lookup.callbacks.isEmpty()) {
+            lookup.request.cancel();
+            pending.remove(key);
+        }
+    }
+
+    private void lookup(String word, ApiService.ApiCallback<List<String>> callback, NetworkScheduler.Lane lane) {
+        String key = word.toLowerCase();
+
+        CachedSynonyms cached = getFromMemory(key);
+        if (cached != null) {
+            memoryHits.incrementAndGet();
+            deliver(cached.synonyms, callback);
+            return;
+        }
+
+        PendingLookup running = pending.get(key);
+        if (running != null) {
+            mergedRequests.incrementAndGet();
+            running.callbacks.add(callback);
+            // A hint joining a queued prefetch must not wait behind the background lane
+            scheduler.promote(running.task, lane);
+            return;
+        }
+        PendingLookup lookup = new PendingLookup();
+        lookup.callbacks.add(callback);
+        pending.put(key, lookup);
+
+        RequestHandle request = new RequestHandle();
+        lookup.request = request;
+        lookup.task = scheduler.submit(lane, () -> {
+            CachedSynonyms loaded = readFromDisk(key);
+            if (loaded != null) {
+                diskHits.incrementAndGet();
+            } else {
+                try {
+                    networkFetches.incrementAndGet();
+                    loaded = new CachedSynonyms(apiService.fetchSynonyms(key, request), System.currentTimeMillis());
+                    writeToDisk(key, loaded);
+                } catch (IOException e) {
+                    // Failures are not cached, the next lookup tries the API again
+                    String error = e instanceof ApiService.ApiException
+                            ? e.getMessage() : "Network error: " + e.getMessage();
+                    mainHandler.post(() -> complete(key, lookup, null, error));
+                    return;
+                }
+            }
+            final CachedSynonyms result = loaded;
+            mainHandler.post(() -> complete(key, lookup, result, null));
+        });
+        request.setTask(lookup.task);
+    }
+
+    // Hand the result to everyone waiting on this lookup
+    private void complete(String key, PendingLookup lookup, CachedSynonyms result, String error) {
+        if (pending.get(key) == lookup) {
+            pending.remove(key);
+        }
+        if (result != null) {
+            synchronized (memory) {
+                memory.put(key, result);
+            }
+        }
+
+        for (ApiService.ApiCallback<List<String>> callback : lookup.callbacks) {
+            if (result != null) {
+                deliver(result.synonyms, callback);
+            } else {
+                callback.onError(error);
+            }
+        }
+    }
+
+    private void deliver(List<String> synonyms, ApiService.ApiCallback<List<String>> callback) {
+        // Words without synonyms are cached too, so they don't use up quota again
+        if (!synonyms.isEmpty()) {
+            callback.onSuccess(synonyms);
+        } else {
+            callback.onError("No synonyms found");
+        }
+    }
+
+    private CachedSynonyms getFromMemory(String key) {
+        synchronized (memory) {
+            CachedSynonyms cached = memory.get(key);
+            if (cached != null && isExpired(cached)) {
+                memory.remove(key);
+                return null;
+            }
+            return cached;
+        }
+    }
+
+    private boolean isExpired(CachedSynonyms cached) {
+        return System.currentTimeMillis() - cached.fetchedAt > ttlMillis;
+    }
+
+    private File fileFor(String key) {
+        try {
+            return new File(directory, URLEncoder.encode(key, "UTF-8"));
+        } catch (IOException e) {
+            return new File(directory, Integer.toHexString(key.hashCode()));
+        }
+    }
+
+    // Disk format: first line is the fetch time, then one synonym per line
+    private CachedSynonyms readFromDisk(String key) {
+        File file = fileFor(key);
+        if (!file.exists()) return null;
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String header = reader.readLine();
+            if (header == null) throw new IOException("Empty cache entry");
+            long fetchedAt = Long.parseLong(header);
+            List<String> synonyms = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) synonyms.add(line);
+            }
+            CachedSynonyms cached = new CachedSynonyms(synonyms, fetchedAt);
+            if (isExpired(cached)) {
+                file.delete();
+                return null;
+            }
+            return cached;
+        } catch (IOException | NumberFormatException e) {
+            // Corrupt entry, drop it
+            file.delete();
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, CachedSynonyms cached) {
+        if (!directory.exists() && !directory.mkdirs()) return;
+
+        File file = fileFor(key);
+        File temp = new File(directory, file.getName() + ".tmp");
+        try (Writer writer = new FileWriter(temp)) {
+            writer.write(Long.toString(cached.fetchedAt));
+            writer.write('\n');
+            for (String synonym : cached.synonyms) {
+                writer.write(synonym);
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            temp.delete();
+            return;
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+        }
+    }
+
+    public int getMemoryHits() {
+        return memoryHits.get();
+    }
+
+    public int getDiskHits() {
+        return diskHits.get();
+    }
+
+    public int getNetworkFetches() {
+        return networkFetches.get();
+    }
+
+    public int getMergedRequests() {
+        return mergedRequests.get();
+    }
+
+    // Share of lookups answered without calling the thesaurus API
+    public double getHitRate() {
+        int saved = memoryHits.get() + diskHits.get() + mergedRequests.get();
+        int total = saved + networkFetches.get();
+        return total == 0 ? 0 : (double) saved / total;
+    }
+
+    private static class PendingLookup {
+        final List<ApiService.ApiCallback<List<String>>> callbacks = new ArrayList<>();
+        RequestHandle request;
+        Future<?> task;
+    }
+
+    private static class CachedSynonyms {
+        final List<String> synonyms;
+        final long fetchedAt;
+
+        CachedSynonyms(List<String> synonyms, long fetchedAt) {
+            this.synonyms = Collections.unmodifiableList(synonyms);
+            this.fetchedAt = fetchedAt;
+        }
+    }
+}
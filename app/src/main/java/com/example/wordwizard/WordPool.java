@@ -0,0 +1,126 @@
+package com.example.wordwizard;
+
+import java.util.List;
+
+/**
+ * Background pool of prefetched words so a round can start without a network round trip.
+ * Words are kept per length, refilled with batched requests on the scheduler's background lane whenever
+ * the words available for the current difficulty drop below the low-water mark.
+ * Meant to be used from the main thread, like the ApiService callbacks.
+ */
+public class WordPool {
+
+    // Refill rounds allowed per poll before waiting for the next one
+    private static final int MAX_REFILL_ROUNDS = 3;
+    // Words are fetched in one batched request, long enough ones are rare
+    private static final int MIN_REFILL_BATCH = 20;
+
+    private final ApiService apiService;
+    private final LengthBuckets buckets;
+    private final int targetSize;
+    private final int lowWaterMark;
+
+    // Minimum length the pool is currently being filled for
+    private int targetMinLength = 1;
+    private int requestsInFlight = 0;
+    private int refillRounds = 0;
+    // The running refill, cancelled on shutdown
+    private RequestHandle refillRequest;
+    private boolean shutdown = false;
+
+    // Stats for sizing the pool
+    private int hitCount = 0;
+    private int missCount = 0;
+    private int refillCount = 0;
+
+    public WordPool(ApiService apiService, int capacityPerLength, int targetSize, int lowWaterMark) {
+        this.apiService = apiService;
+        this.buckets = new LengthBuckets(capacityPerLength);
+        this.targetSize = targetSize;
+        this.lowWaterMark = lowWaterMark;
+    }
+
+    /**
+     * Take a prefetched word with at least minLength letters.
+     * Does not refill by itself, so a direct fetch after a miss is not queued behind
+     * the refill; call {@link #prefetch(int)} once the round's word is on its way.
+     * @return the word, or null if the pool has none (caller should fetch it directly)
+     */
+    public String poll(int minLength) {
+        String word = buckets.poll(minLength);
+        if (word != null) {
+            hitCount++;
+        } else {
+            missCount++;
+        }
+        refillRounds = 0;
+        return word;
+    }
+
+    /**
+     * Start filling the pool for words of at least minLength letters
+     */
+    public void prefetch(int minLength) {
+        targetMinLength = minLength;
+        if (shutdown || requestsInFlight > 0 || buckets.countAtLeast(minLength) >= lowWaterMark) {
+            return;
+        }
+
+        refillCount++;
+        refillRounds++;
+        int missing = targetSize - buckets.countAtLeast(minLength);
+        requestsInFlight++;
+        refillRequest = apiService.getRandomWords(Math.max(missing, MIN_REFILL_BATCH), new ApiService.ApiCallback<List<String>>() {
+            @Override
+            public void onSuccess(List<String> words) {
+                requestsInFlight--;
+                refillRequest = null;
+                for (String word : words) {
+                    buckets.offer(word.toLowerCase());
+                }
+                refillIfDrained();
+            }
+
+            @Override
+            public void onError(String error) {
+                // Don't keep retrying while offline, the next poll starts a new refill
+                requestsInFlight--;
+                refillRequest = null;
+            }
+        });
+    }
+
+    // Long words are rare, so keep going (a bounded number of rounds) until the target length is covered
+    private void refillIfDrained() {
+        if (requestsInFlight == 0 && refillRounds < MAX_REFILL_ROUNDS) {
+            prefetch(targetMinLength);
+        }
+    }
+
+    /**
+     * Cancel the running refill and start no more
+     */
+    public void shutdown() {
+        shutdown = true;
+        if (refillRequest != null) {
+            refillRequest.cancel();
+            refillRequest = null;
+        }
+    }
+
+    public int getHitCount() {
+        return hitCount;
+    }
+
+    public int getMissCount() {
+        return missCount;
+    }
+
+    public int getRefillCount() {
+        return refillCount;
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.wordwizard;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Source of secret words for a round, either the remote API or the bundled dictionary.
+ * Callbacks follow the ApiService contract and are delivered on the main thread.
+ * The returned handle cancels the request and its callback.
+ */
+public interface WordSource {
+
+    // Get random word
+    RequestHandle getRandomWord(ApiService.ApiCallback<String> callback);
+
+    // Get random word with minimum length (for difficulty levels)
+    RequestHandle getRandomWordWithLength(int minLength, ApiService.ApiCallback<String> callback);
+
+    /**
+     * Future version of the lookups, a minLength of 1 or less asks for any word.
+     * Cancelling the future cancels the request.
+     */
+    default CompletableFuture<String> randomWord(int minLength) {
+        return Futures.fromApi(callback -> minLength <= 1
+                ? getRandomWord(callback)
+                : getRandomWordWithLength(minLength, callback));
+    }
+}
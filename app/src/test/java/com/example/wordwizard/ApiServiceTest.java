@@ -0,0 +1,56 @@
+package com.example.wordwizard;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the batched word length search, against the stand-in server.
+ */
+public class ApiServiceTest {
+
+    private StandInServer server;
+    private NetworkScheduler scheduler;
+
+    private ApiService start(List<String> words) throws IOException {
+        server = new StandInServer(words, 7);
+        scheduler = new NetworkScheduler(Executors.newFixedThreadPool(2), 2);
+        return new ApiService(HttpClients.create(null, 5, 5, 5), scheduler, server.endpoints());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        scheduler.shutdown();
+        server.close();
+    }
+
+    @Test
+    public void longWordComesFromOneBatchAndShortOnesAreKept() throws IOException {
+        ApiService api = start(Arrays.asList("cat", "dog", "owl", "elephant"));
+
+        assertEquals("elephant", api.fetchWordWithLength(8, new RequestHandle()));
+        assertEquals(1, api.getLastLengthFetchCalls());
+        assertEquals(1, server.getRequestCount());
+
+        // The rest of the batch serves the next levels without a request
+        assertEquals(3, api.fetchWordWithLength(3, new RequestHandle()).length());
+        assertEquals(0, api.getLastLengthFetchCalls());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void lengthSearchGivesUpAfterTheFetchCap() throws IOException {
+        ApiService api = start(Arrays.asList("cat", "dog"));
+
+        assertNull(api.fetchWordWithLength(6, new RequestHandle()));
+        assertEquals(5, api.getLastLengthFetchCalls());
+        assertEquals(5, server.getRequestCount());
+        assertEquals(5, api.getHttpCallCount());
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.wordwizard;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for opening, probing and timeouts of the circuit breaker.
+ */
+public class CircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final CircuitBreaker breaker = new CircuitBreaker("thesaurus", now::get);
+
+    @Test
+    public void opensAfterFailuresAndRefusesCalls() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            breaker.acquire();
+            breaker.record(i % 2 == 0, 100);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        try {
+            breaker.acquire();
+            fail("Expected the open circuit to refuse the call");
+        } catch (CircuitBreaker.CircuitOpenException expected) {
+            assertEquals(1, breaker.getRejectedCount());
+        }
+    }
+
+    @Test
+    public void halfOpenLetsOneProbeThrough() throws Exception {
+        openCircuit();
+        now.addAndGet(30_000);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        breaker.acquire();
+        try {
+            breaker.acquire();
+            fail("Only one probe at a time");
+        } catch (CircuitBreaker.CircuitOpenException expected) {
+            // Still waiting for the probe
+        }
+
+        breaker.record(true, 120);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0.0, breaker.getFailureRate(), 0.0);
+        breaker.acquire();
+    }
+
+    @Test
+    public void failedProbeOpensAgain() throws Exception {
+        openCircuit();
+        now.addAndGet(30_000);
+        breaker.acquire();
+        breaker.record(false, 0);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(2, breaker.getOpenCount());
+    }
+
+    @Test
+    public void timeoutFollowsLatency() throws Exception {
+        assertEquals(10_000, breaker.getTimeoutMillis());
+
+        for (int i = 0; i < 100; i++) {
+            breaker.acquire();
+            breaker.record(true, i < 98 ? 150 : 1500);
+        }
+        // p99 falls in the bucket holding the slowest call, twice that is the timeout
+        assertEquals(1500, breaker.getLatencyPercentile(0.99));
+        assertEquals(3000, breaker.getTimeoutMillis());
+
+        // Old latencies age out of the window
+        now.addAndGet(150_000);
+        assertEquals(10_000, breaker.getTimeoutMillis());
+    }
+
+    private void openCircuit() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            breaker.acquire();
+            breaker.record(false, 0);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+}
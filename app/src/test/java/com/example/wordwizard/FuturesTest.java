@@ -0,0 +1,105 @@
+package com.example.wordwizard;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the future combinators.
+ */
+public class FuturesTest {
+
+    @Test
+    public void cancellingFutureCancelsRequest() {
+        RequestHandle handle = new RequestHandle();
+        CompletableFuture<String> word = Futures.fromApi(callback -> handle);
+
+        word.cancel(false);
+        assertTrue(handle.isCancelled());
+    }
+
+    @Test
+    public void errorCallbackFailsFuture() {
+        CompletableFuture<String> word = Futures.fromApi(callback -> {
+            callback.onError("No word returned");
+            return RequestHandle.completed();
+        });
+
+        try {
+            word.join();
+            fail("Expected the future to fail");
+        } catch (RuntimeException e) {
+            assertTrue(Futures.unwrap(e) instanceof IOException);
+            assertEquals("No word returned", Futures.unwrap(e).getMessage());
+        }
+    }
+
+    @Test
+    public void timeoutFailsSlowFuture() throws Exception {
+        CompletableFuture<String> slow = Futures.withTimeout(new CompletableFuture<>(), 20, TimeUnit.MILLISECONDS);
+
+        try {
+            slow.get(5, TimeUnit.SECONDS);
+            fail("Expected a timeout");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+    }
+
+    @Test
+    public void firstSuccessfulCancelsLosers() throws Exception {
+        CompletableFuture<String> failing = new CompletableFuture<>();
+        CompletableFuture<String> fast = new CompletableFuture<>();
+        CompletableFuture<String> slow = new CompletableFuture<>();
+        CompletableFuture<String> winner = Futures.firstSuccessful(List.of(failing, fast, slow));
+
+        failing.completeExceptionally(new IOException("Network error"));
+        assertFalse(winner.isDone());
+        fast.complete("wizard");
+
+        assertEquals("wizard", winner.get(5, TimeUnit.SECONDS));
+        assertTrue(slow.isCancelled());
+    }
+
+    @Test
+    public void orElseUsesFallbackAfterFailure() throws Exception {
+        CompletableFuture<String> primary = new CompletableFuture<>();
+        CompletableFuture<String> word = Futures.orElse(primary, () -> CompletableFuture.completedFuture("offline"));
+
+        primary.completeExceptionally(new TimeoutException());
+        assertEquals("offline", word.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void orElseCancelsRunningFuture() {
+        CompletableFuture<String> primary = new CompletableFuture<>();
+        CompletableFuture<String> word = Futures.orElse(primary, CompletableFuture::new);
+
+        word.cancel(false);
+        assertTrue(primary.isCancelled());
+    }
+
+    @Test
+    public void allOfKeepsOrderAndFailsFast() throws Exception {
+        CompletableFuture<Integer> first = new CompletableFuture<>();
+        CompletableFuture<Integer> second = new CompletableFuture<>();
+        CompletableFuture<List<Integer>> both = Futures.allOf(List.of(first, second));
+        second.complete(2);
+        first.complete(1);
+        assertEquals(List.of(1, 2), both.get(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Integer> failing = new CompletableFuture<>();
+        CompletableFuture<Integer> pending = new CompletableFuture<>();
+        CompletableFuture<List<Integer>> failed = Futures.allOf(List.of(failing, pending));
+        failing.completeExceptionally(new IOException("Network error"));
+        assertTrue(failed.isCompletedExceptionally());
+        assertTrue(pending.isCancelled());
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.wordwizard;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for hedging a slow word source.
+ */
+public class HedgedWordSourceTest {
+
+    @Test
+    public void slowPrimaryIsHedgedAndCancelled() throws Exception {
+        FakeSource primary = new FakeSource();
+        FakeSource hedge = new FakeSource();
+        HedgedWordSource source = new HedgedWordSource(primary, hedge);
+
+        CompletableFuture<String> word = source.randomWord(5);
+        // Nothing answered yet, the hedge goes out after the default delay
+        assertNull(hedge.pending);
+        for (int i = 0; i < 500 && hedge.pending == null; i++) {
+            Thread.sleep(10);
+        }
+        assertNotNull(hedge.pending);
+        hedge.pending.complete("offline");
+
+        assertEquals("offline", word.get(5, TimeUnit.SECONDS));
+        assertTrue(primary.pending.isCancelled());
+        assertEquals(1, source.getHedgeWinCount());
+    }
+
+    @Test
+    public void failedPrimaryHedgesRightAway() throws Exception {
+        FakeSource primary = new FakeSource();
+        FakeSource hedge = new FakeSource();
+        HedgedWordSource source = new HedgedWordSource(primary, hedge);
+
+        CompletableFuture<String> word = source.randomWord(5);
+        primary.pending.completeExceptionally(new java.io.IOException("Network error"));
+        assertNotNull(hedge.pending);
+        hedge.pending.complete("offline");
+        assertEquals("offline", word.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void hedgeDelayFollowsPrimaryLatency() throws Exception {
+        FakeSource primary = new FakeSource();
+        HedgedWordSource source = new HedgedWordSource(primary, new FakeSource());
+        assertEquals(1500, source.getHedgeDelayMillis());
+
+        // Fast answers bring the delay down to its floor
+        for (int i = 0; i < 10; i++) {
+            CompletableFuture<String> word = source.randomWord(5);
+            primary.pending.complete("wizard");
+            assertEquals("wizard", word.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(200, source.getHedgeDelayMillis());
+        assertEquals(0, source.getHedgeCount());
+    }
+
+    @Test
+    public void cancelledPrimaryIsNotALatencySample() throws Exception {
+        FakeSource primary = new FakeSource();
+        HedgedWordSource source = new HedgedWordSource(primary, new FakeSource());
+
+        // Each lookup is dropped before the primary answers, e.g. the round was abandoned
+        for (int i = 0; i < 10; i++) {
+            source.randomWord(5).cancel(false);
+            assertTrue(primary.pending.isCancelled());
+        }
+        assertEquals(1500, source.getHedgeDelayMillis());
+    }
+
+    // Source whose last request is completed by the test
+    private static class FakeSource implements WordSource {
+        volatile CompletableFuture<String> pending;
+
+        @Override
+        public RequestHandle getRandomWord(ApiService.ApiCallback<String> callback) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public RequestHandle getRandomWordWithLength(int minLength, ApiService.ApiCallback<String> callback) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<String> randomWord(int minLength) {
+            pending = new CompletableFuture<>();
+            return pending;
+        }
+    }
+}
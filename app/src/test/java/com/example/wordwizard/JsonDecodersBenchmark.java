@@ -0,0 +1,80 @@
+package com.example.wordwizard;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import okio.Buffer;
+
+/**
+ * Response decoding: the previous String + reflective Gson decoding against JsonDecoders.
+ * Run main() (or with -prof gc through the JMH command line) to get time and allocation per decode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonDecodersBenchmark {
+
+    private static final byte[] WORDS = "[\"lantern\",\"orchard\",\"meadow\",\"harvest\",\"glacier\"]"
+            .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] THESAURUS = ("{\"word\":\"happy\",\"synonyms\":[\"glad\",\"cheerful\",\"content\"],"
+            + "\"antonyms\":[\"sad\",\"unhappy\"]}").getBytes(StandardCharsets.UTF_8);
+    private static final Type WORD_LIST_TYPE = new TypeToken<List<String>>(){}.getType();
+
+    private final Gson gson = new Gson();
+
+    private static class ThesaurusResponse {
+        List<String> synonyms;
+    }
+
+    // Previous ApiService decoding (ResponseBody.string() then Gson.fromJson)
+    @Benchmark
+    public List<String> wordsViaString() {
+        return gson.fromJson(new Buffer().write(WORDS).readUtf8(), WORD_LIST_TYPE);
+    }
+
+    @Benchmark
+    public List<String> wordsStreaming() throws IOException {
+        return JsonDecoders.decode(JsonDecoders.WORD_LIST, new Buffer().write(WORDS));
+    }
+
+    @Benchmark
+    public List<String> synonymsViaString() {
+        return gson.fromJson(new Buffer().write(THESAURUS).readUtf8(), ThesaurusResponse.class).synonyms;
+    }
+
+    @Benchmark
+    public List<String> synonymsStreaming() throws IOException {
+        return JsonDecoders.decode(JsonDecoders.THESAURUS_SYNONYMS, new Buffer().write(THESAURUS));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JsonDecodersBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.wordwizard;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import okio.Buffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the streaming API decoders. JsonDecodersBenchmark compares their
+ * allocation with the previous String + reflective Gson decoding.
+ */
+public class JsonDecodersTest {
+
+    private static final byte[] WORDS = "[\"lantern\",\"orchard\",\"meadow\",\"harvest\",\"glacier\"]"
+            .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] THESAURUS = ("{\"word\":\"happy\",\"synonyms\":[\"glad\",\"cheerful\",\"content\"],"
+            + "\"antonyms\":[\"sad\",\"unhappy\"]}").getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void decodesWordList() throws IOException {
+        assertEquals(Arrays.asList("lantern", "orchard", "meadow", "harvest", "glacier"),
+                JsonDecoders.decode(JsonDecoders.WORD_LIST, buffer(WORDS)));
+    }
+
+    @Test
+    public void decodesSynonymsAndSkipsOtherFields() throws IOException {
+        assertEquals(Arrays.asList("glad", "cheerful", "content"),
+                JsonDecoders.decode(JsonDecoders.THESAURUS_SYNONYMS, buffer(THESAURUS)));
+        assertEquals(Collections.emptyList(),
+                JsonDecoders.decode(JsonDecoders.THESAURUS_SYNONYMS, buffer("{\"word\":\"x\"}".getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsMalformedBody() throws IOException {
+        JsonDecoders.decode(JsonDecoders.WORD_LIST, buffer("{\"error\":".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static Buffer buffer(byte[] body) {
+        return new Buffer().write(body);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.wordwizard;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for when the leaderboard cache goes to Dreamlo, against the stand-in server.
+ */
+public class LeaderboardCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private StandInServer server;
+    private NetworkScheduler scheduler;
+    private LeaderboardCache cache;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new StandInServer(Collections.singletonList("apple"), 1);
+        scheduler = new NetworkScheduler(Executors.newFixedThreadPool(2), 2);
+        DreamloService dreamlo = new DreamloService(HttpClients.create(null, 5, 5, 5), scheduler, server.endpoints());
+        cache = new LeaderboardCache(dreamlo, folder.newFile("leaderboard.txt"), 10);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        cache.shutdown();
+        scheduler.shutdown();
+        server.close();
+    }
+
+    @Test
+    public void prefetchBeforeDiskLoadFetchesOnceLoaded() throws Exception {
+        // The idle prefetch usually runs before the disk copy is read
+        cache.prefetch();
+        cache.prefetch();
+        assertEquals(0, server.getRequestCount());
+
+        // Local tests have no main looper to deliver it
+        cache.onDiskLoaded(null);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (server.getRequestCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        // The refresh is still running, so asking again doesn't start another one
+        cache.prefetch();
+        Thread.sleep(100);
+        assertEquals(1, server.getRequestCount());
+    }
+}
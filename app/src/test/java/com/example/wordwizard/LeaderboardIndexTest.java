@@ -0,0 +1,146 @@
+package com.example.wordwizard;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the paged leaderboard index and its rank search.
+ */
+public class LeaderboardIndexTest {
+
+    private static final int PAGE_SIZE = 25;
+
+    // Board of the given size where row i scores (size - i) / ties, so every score repeats ties times
+    private static int scoreAt(int row, int size, int ties) {
+        return (size - row + ties - 1) / ties;
+    }
+
+    private static LeaderboardSnapshot rows(int from, int to, int size, int ties) {
+        LeaderboardSnapshot.Builder builder = new LeaderboardSnapshot.Builder(Math.max(to - from, 1));
+        for (int row = from; row < Math.min(to, size); row++) {
+            builder.add(new LeaderboardEntry("P" + row, scoreAt(row, size, ties), 60, "", ""));
+        }
+        return builder.build();
+    }
+
+    // Run the probe loop like PagedLeaderboard does, returning the number of requests
+    private static int search(LeaderboardIndex index, int score, int size, int ties) {
+        int requests = 0;
+        int probe;
+        while ((probe = index.nextProbe(score)) >= 0) {
+            index.putProbe(probe, rows(probe, probe + 1, size, ties));
+            requests++;
+            assertTrue("Too many probes", requests < 64);
+        }
+        return requests;
+    }
+
+    @Test
+    public void findsRankWithLogarithmicProbes() {
+        int size = 10_000;
+        for (int row : new int[]{0, 1, 24, 25, 777, 5_000, 9_998, 9_999}) {
+            LeaderboardIndex index = new LeaderboardIndex(PAGE_SIZE);
+            int score = scoreAt(row, size, 1);
+
+            int requests = search(index, score, size, 1);
+
+            assertEquals(row, index.lowerBound(score));
+            assertTrue("Needed " + requests + " probes for row " + row, requests <= 30);
+        }
+    }
+
+    @Test
+    public void tiedScoresResolveToFirstTiedRow() {
+        int size = 1_000;
+        int ties = 7;
+        LeaderboardIndex index = new LeaderboardIndex(PAGE_SIZE);
+        int score = scoreAt(500, size, ties);
+
+        search(index, score, size, ties);
+
+        int first = index.lowerBound(score);
+        assertEquals(score, scoreAt(first, size, ties));
+        assertTrue(first == 0 || scoreAt(first - 1, size, ties) > score);
+    }
+
+    @Test
+    public void loadedPagesAnswerWithoutProbes() {
+        int size = 100;
+        LeaderboardIndex index = new LeaderboardIndex(PAGE_SIZE);
+        index.putPage(0, rows(0, PAGE_SIZE, size, 1));
+        index.putPage(1, rows(PAGE_SIZE, 2 * PAGE_SIZE, size, 1));
+
+        int score = scoreAt(30, size, 1);
+        assertEquals(-1, index.nextProbe(score));
+        assertEquals(30, index.lowerBound(score));
+        assertEquals(30, index.rowOf("P30"));
+    }
+
+    @Test
+    public void searchPastTheEndStopsAtBoardSize() {
+        int size = 40;
+        LeaderboardIndex index = new LeaderboardIndex(PAGE_SIZE);
+
+        search(index, 0, size, 1);
+
+        assertEquals(size, index.lowerBound(0));
+        assertEquals(size, index.knownSize());
+    }
+
+    @Test
+    public void prefixJoinsPagesFromTheTop() {
+        int size = 60;
+        LeaderboardIndex index = new LeaderboardIndex(PAGE_SIZE);
+        index.putPage(0, rows(0, PAGE_SIZE, size, 1));
+        index.putPage(2, rows(2 * PAGE_SIZE, 3 * PAGE_SIZE, size, 1));
+        assertEquals(PAGE_SIZE, index.prefix().size());
+        assertFalse(index.isPrefixComplete());
+
+        index.putPage(1, rows(PAGE_SIZE, 2 * PAGE_SIZE, size, 1));
+        LeaderboardSnapshot prefix = index.prefix();
+        assertEquals(size, prefix.size());
+        assertEquals("P59", prefix.getName(59));
+        assertTrue(index.isPrefixComplete());
+
+        LeaderboardSnapshot window = index.rows(23, 28);
+        assertEquals(5, window.size());
+        assertEquals("P23", window.getName(0));
+        assertEquals("P27", window.getName(4));
+    }
+
+    @Test
+    public void changedFirstPageDropsLowerPages() {
+        int size = 100;
+        LeaderboardIndex index = new LeaderboardIndex(PAGE_SIZE);
+        index.putPage(0, rows(0, PAGE_SIZE, size, 1));
+        index.putPage(1, rows(PAGE_SIZE, 2 * PAGE_SIZE, size, 1));
+
+        index.putPage(0, rows(0, PAGE_SIZE, size + 1, 1));
+
+        assertFalse(index.hasPage(1));
+        assertEquals(1, index.prefixPages());
+    }
+
+    @Test
+    public void prefixGrowsWithoutChangingEarlierPrefixes() {
+        int size = 100;
+        LeaderboardIndex index = new LeaderboardIndex(PAGE_SIZE);
+        index.putPage(0, rows(0, PAGE_SIZE, size, 1));
+        LeaderboardSnapshot first = index.prefix();
+        index.putPage(1, rows(PAGE_SIZE, 2 * PAGE_SIZE, size, 1));
+        index.putPage(2, rows(2 * PAGE_SIZE, 3 * PAGE_SIZE, size, 1));
+        LeaderboardSnapshot third = index.prefix();
+
+        assertEquals(PAGE_SIZE, first.size());
+        assertEquals("P" + (PAGE_SIZE - 1), first.getName(PAGE_SIZE - 1));
+        assertEquals(3 * PAGE_SIZE, third.size());
+        assertEquals("P0", third.getName(0));
+        assertEquals("P" + (3 * PAGE_SIZE - 1), third.getName(3 * PAGE_SIZE - 1));
+        assertSame(third, index.prefix());
+
+        // A reloaded page inside the prefix rebuilds it
+        index.putPage(1, rows(PAGE_SIZE, 2 * PAGE_SIZE - 5, size, 1));
+        assertEquals(2 * PAGE_SIZE - 5, index.prefix().size());
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.wordwizard;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the columnar leaderboard.
+ */
+public class LeaderboardSnapshotTest {
+
+    private static LeaderboardSnapshot parse(String data) throws IOException {
+        LeaderboardSnapshot.Builder builder = new LeaderboardSnapshot.Builder();
+        new PipeLeaderboardParser().parse(new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8)), builder);
+        return builder.build();
+    }
+
+    @Test
+    public void exposesColumnsByIndex() throws IOException {
+        LeaderboardSnapshot snapshot = parse("Alice|90|42|Level3|10/5/2025\nBob|75|61|Level2|10/6/2025\n");
+
+        assertEquals(2, snapshot.size());
+        assertEquals("Bob", snapshot.getName(1));
+        assertEquals(75, snapshot.getScore(1));
+        assertEquals(61, snapshot.getSeconds(1));
+        assertEquals("01:01", snapshot.getFormattedTime(1));
+        assertEquals("Level3", snapshot.getText(0));
+        assertEquals("10/6/2025", snapshot.getDate(1));
+        assertEquals("Alice", snapshot.toEntries().get(0).getName());
+    }
+
+    @Test
+    public void ranksAndTopViews() throws IOException {
+        LeaderboardSnapshot snapshot = parse("A|9|1\nB|8|1\nC|7|1\nD|6|1\n");
+
+        assertEquals(3, snapshot.rankOf("C"));
+        assertEquals(-1, snapshot.rankOf("Z"));
+
+        LeaderboardSnapshot top = snapshot.top(2);
+        assertEquals(2, top.size());
+        assertEquals(-1, top.rankOf("C"));
+        assertEquals(2, top.rankOf("B"));
+        assertSame(snapshot, snapshot.top(10));
+    }
+
+    @Test
+    public void ranksInBuilderViewIgnoreUnfilledRows() {
+        LeaderboardSnapshot.Builder builder = new LeaderboardSnapshot.Builder(50);
+        builder.add(new LeaderboardEntry("Ann", 9, 1, "", ""));
+        builder.add(new LeaderboardEntry("Bob", 8, 1, "", ""));
+
+        LeaderboardSnapshot view = builder.snapshot();
+        assertEquals(2, view.rankOf("Bob"));
+        assertEquals(-1, view.rankOf("Cy"));
+    }
+
+    @Test
+    public void writesBackInPipeFormat() throws IOException {
+        LeaderboardSnapshot snapshot = parse("Alice|90|42|Level3|10/5/2025\nBob|-1|61||\n");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        snapshot.writeTo(output);
+
+        LeaderboardSnapshot reread = parse(output.toString("UTF-8"));
+        assertTrue(reread.contentEquals(snapshot));
+        assertFalse(reread.contentEquals(parse("Alice|90|42|Level3|10/5/2025\nBob|-1|62||\n")));
+        assertFalse(reread.contentEquals(null));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rejectsRowsPastTheView() throws IOException {
+        parse("A|9|1\nB|8|1\n").top(1).getName(1);
+    }
+
+    @Test
+    public void builderGrowsAndStartsOverAfterBuild() {
+        LeaderboardSnapshot.Builder builder = new LeaderboardSnapshot.Builder(4);
+        for (int i = 0; i < 100; i++) {
+            builder.add(new LeaderboardEntry("P" + i, 100 - i, i, "Level1", "date"));
+        }
+        LeaderboardSnapshot first = builder.build();
+        LeaderboardSnapshot second = builder.add(new LeaderboardEntry("Q", 1, 2, "t", "")).build();
+
+        assertEquals(100, first.size());
+        assertEquals("P99", first.getName(99));
+        assertEquals("Level1", first.getText(99));
+        assertEquals(1, second.size());
+        assertEquals("t", second.getText(0));
+        assertEquals("", second.getDate(0));
+        assertEquals(0, builder.build().size());
+    }
+}
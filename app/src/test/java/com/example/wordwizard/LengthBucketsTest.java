@@ -0,0 +1,36 @@
+package com.example.wordwizard;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for keeping words by length.
+ */
+public class LengthBucketsTest {
+
+    @Test
+    public void keepsWordsByLengthUpToCapacity() {
+        LengthBuckets buckets = new LengthBuckets(2);
+        assertTrue(buckets.offer("owl"));
+        assertTrue(buckets.offer("cat"));
+        assertFalse(buckets.offer("dog"));
+        assertTrue(buckets.offer("wizard"));
+
+        assertEquals(3, buckets.size());
+        assertEquals(1, buckets.countAtLeast(4));
+    }
+
+    @Test
+    public void pollsShortestLongEnoughWordFirst() {
+        LengthBuckets buckets = new LengthBuckets(4);
+        buckets.offer("wizard");
+        buckets.offer("owl");
+        buckets.offer("cat");
+
+        assertEquals("owl", buckets.poll(2));
+        assertEquals("cat", buckets.poll(3));
+        assertEquals("wizard", buckets.poll(3));
+        assertNull(buckets.poll(1));
+    }
+}
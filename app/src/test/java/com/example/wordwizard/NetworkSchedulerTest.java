@@ -0,0 +1,145 @@
+package com.example.wordwizard;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for lane ordering, caps and round cancellation.
+ */
+public class NetworkSchedulerTest {
+
+    @Test
+    public void queueWaitIsExported() throws Exception {
+        LogLinearHistogram waits = MetricsRegistry.getDefault().histogram("scheduler.HINT.wait.ms");
+        long before = waits.getCount();
+        NetworkScheduler scheduler = new NetworkScheduler(Executors.newSingleThreadExecutor(), 1);
+
+        scheduler.submit(NetworkScheduler.Lane.HINT, () -> { }).get(5, TimeUnit.SECONDS);
+        assertEquals(before + 1, waits.getCount());
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void submitAfterShutdownIsCancelled() {
+        NetworkScheduler scheduler = new NetworkScheduler(Executors.newSingleThreadExecutor(), 1);
+        scheduler.shutdown();
+        AtomicInteger runs = new AtomicInteger();
+
+        Future<?> late = scheduler.submit(NetworkScheduler.Lane.ROUND_WORD, runs::incrementAndGet);
+        assertTrue(late.isCancelled());
+        assertEquals(0, runs.get());
+        assertEquals(0, scheduler.getQueuedCount(NetworkScheduler.Lane.ROUND_WORD));
+    }
+
+    @Test
+    public void urgentLaneStartsFirst() throws Exception {
+        NetworkScheduler scheduler = new NetworkScheduler(Executors.newSingleThreadExecutor(), 1, new MetricsRegistry());
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+        scheduler.submit(NetworkScheduler.Lane.BACKGROUND, () -> await(release));
+        scheduler.submit(NetworkScheduler.Lane.BACKGROUND, () -> order.add("prefetch"));
+        scheduler.submit(NetworkScheduler.Lane.LEADERBOARD_READ, () -> order.add("leaderboard"));
+        scheduler.submit(NetworkScheduler.Lane.HINT, () -> order.add("hint"));
+        Future<?> last = scheduler.submit(NetworkScheduler.Lane.ROUND_WORD, () -> order.add("word"));
+        release.countDown();
+
+        last.get(5, TimeUnit.SECONDS);
+        waitForCount(order, 4);
+        assertEquals(List.of("word", "hint", "leaderboard", "prefetch"), order);
+        assertEquals(2, scheduler.getQueueWait(NetworkScheduler.Lane.BACKGROUND).getCount());
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void laneCapLeavesRoomForOtherLanes() throws Exception {
+        NetworkScheduler scheduler = new NetworkScheduler(Executors.newFixedThreadPool(4), 4);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch hintStarted = new CountDownLatch(1);
+        AtomicInteger hintsRunning = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            scheduler.submit(NetworkScheduler.Lane.HINT, () -> {
+                hintsRunning.incrementAndGet();
+                hintStarted.countDown();
+                await(release);
+            });
+        }
+        assertTrue(hintStarted.await(5, TimeUnit.SECONDS));
+        // HINT is capped at one task, so the word doesn't wait behind the other hints
+        Future<?> word = scheduler.submit(NetworkScheduler.Lane.ROUND_WORD, () -> { });
+        word.get(5, TimeUnit.SECONDS);
+        assertEquals(1, hintsRunning.get());
+        assertEquals(2, scheduler.getQueuedCount(NetworkScheduler.Lane.HINT));
+
+        release.countDown();
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void promotedTaskLeavesTheBusyLane() throws Exception {
+        NetworkScheduler scheduler = new NetworkScheduler(Executors.newFixedThreadPool(2), 2);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch blockerStarted = new CountDownLatch(1);
+
+        scheduler.submit(NetworkScheduler.Lane.BACKGROUND, () -> {
+            blockerStarted.countDown();
+            await(release);
+        });
+        assertTrue(blockerStarted.await(5, TimeUnit.SECONDS));
+        // Stuck behind the running task, BACKGROUND is capped at one
+        Future<?> prefetch = scheduler.submit(NetworkScheduler.Lane.BACKGROUND, () -> { });
+
+        assertTrue(scheduler.promote(prefetch, NetworkScheduler.Lane.HINT));
+        prefetch.get(5, TimeUnit.SECONDS);
+        assertFalse(scheduler.promote(prefetch, NetworkScheduler.Lane.ROUND_WORD));
+        assertEquals(0, scheduler.getQueuedCount(NetworkScheduler.Lane.BACKGROUND));
+
+        release.countDown();
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void newRoundCancelsQueuedRoundWork() throws Exception {
+        NetworkScheduler scheduler = new NetworkScheduler(Executors.newSingleThreadExecutor(), 1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger ran = new AtomicInteger();
+
+        scheduler.submit(NetworkScheduler.Lane.BACKGROUND, () -> await(release));
+        Future<?> staleWord = scheduler.submit(NetworkScheduler.Lane.ROUND_WORD, ran::incrementAndGet);
+        Future<?> refill = scheduler.submit(NetworkScheduler.Lane.BACKGROUND, ran::incrementAndGet);
+        scheduler.startRound();
+        Future<?> word = scheduler.submit(NetworkScheduler.Lane.ROUND_WORD, ran::incrementAndGet);
+        release.countDown();
+
+        word.get(5, TimeUnit.SECONDS);
+        refill.get(5, TimeUnit.SECONDS);
+        assertTrue(staleWord.isCancelled());
+        assertEquals(2, ran.get());
+        scheduler.shutdown();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitForCount(List<?> list, int count) throws InterruptedException {
+        for (int i = 0; i < 500 && list.size() < count; i++) {
+            Thread.sleep(10);
+        }
+    }
+}
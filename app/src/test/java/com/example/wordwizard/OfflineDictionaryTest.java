@@ -0,0 +1,69 @@
+package com.example.wordwizard;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the bundled word dictionary format.
+ */
+public class OfflineDictionaryTest {
+
+    private static OfflineDictionary build(List<String> words) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        OfflineDictionary.write(words, output);
+        return new OfflineDictionary(ByteBuffer.wrap(output.toByteArray()));
+    }
+
+    @Test
+    public void pickWord_respectsMinimumLength() throws IOException {
+        OfflineDictionary dictionary = build(Arrays.asList("cat", "house", "giraffe", "Elephant", "no-way"));
+
+        assertEquals(4, dictionary.countWords(1));
+        assertEquals(2, dictionary.countWords(6));
+        for (int i = 0; i < 50; i++) {
+            assertTrue(dictionary.pickWord(6).length() >= 6);
+        }
+        assertEquals("elephant", dictionary.pickWord(8));
+        assertNull(dictionary.pickWord(9));
+    }
+
+    @Test
+    public void pickWord_returnsEveryWordEventually() throws IOException {
+        List<String> words = Arrays.asList("oak", "elm", "pine", "birch", "maple");
+        OfflineDictionary dictionary = build(words);
+
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            seen.add(dictionary.pickWord(1));
+        }
+        assertEquals(new HashSet<>(words), seen);
+    }
+
+    @Test(expected = IOException.class)
+    public void open_rejectsOtherData() throws IOException {
+        new OfflineDictionary(ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5, 6, 7, 8}));
+    }
+
+    @Test
+    public void bundledAsset_matchesWordList() throws IOException {
+        // Regenerate src/main/assets/words.wwd with OfflineDictionary.write when dictionary/words.txt changes
+        List<String> words = Files.readAllLines(new File("dictionary/words.txt").toPath());
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        OfflineDictionary.write(words, expected);
+
+        byte[] bundled = Files.readAllBytes(new File("src/main/assets/" + OfflineDictionary.ASSET_NAME).toPath());
+        assertArrayEquals(expected.toByteArray(), bundled);
+        assertEquals(words.size(), OfflineDictionary.open(new File("src/main/assets/" + OfflineDictionary.ASSET_NAME)).countWords(1));
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.wordwizard;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dreamlo pipe parsing: the previous String/split implementation against PipeLeaderboardParser.
+ * Run main() (or with -prof gc through the JMH command line) to get time and allocation per parse.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PipeLeaderboardParserBenchmark {
+
+    @Param({"25", "1000", "10000"})
+    public int entries;
+
+    private byte[] body;
+    private PipeLeaderboardParser parser;
+
+    @Setup
+    public void setUp() {
+        StringBuilder data = new StringBuilder();
+        for (int i = 0; i < entries; i++) {
+            data.append("Player").append(i).append('|').append(100 - i % 100).append('|').append(30 + i % 600)
+                    .append("|Level").append(1 + i % 12).append("|10/5/2025 8:15:02 AM\n");
+        }
+        body = data.toString().getBytes(StandardCharsets.UTF_8);
+        parser = new PipeLeaderboardParser();
+    }
+
+    @Benchmark
+    public List<LeaderboardEntry> stringSplit() {
+        return parsePipeFormat(new String(body, StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public List<LeaderboardEntry> streamingEntries() throws IOException {
+        return parser.parse(new ByteArrayInputStream(body));
+    }
+
+    @Benchmark
+    public LeaderboardSnapshot streamingSnapshot() throws IOException {
+        LeaderboardSnapshot.Builder builder = new LeaderboardSnapshot.Builder(entries);
+        parser.parse(new ByteArrayInputStream(body), builder);
+        return builder.build();
+    }
+
+    // Row callback only, as used when filling a columnar buffer
+    @Benchmark
+    public void streamingRows(Blackhole blackhole) throws IOException {
+        parser.parse(new ByteArrayInputStream(body),
+                (line, nameStart, nameEnd, score, seconds, textStart, textEnd, dateStart, dateEnd) -> {
+                    blackhole.consume(score);
+                    blackhole.consume(seconds);
+                });
+    }
+
+    // Implementation DreamloService used before PipeLeaderboardParser
+    private static List<LeaderboardEntry> parsePipeFormat(String data) {
+        List<LeaderboardEntry> entries = new ArrayList<>();
+
+        if (data == null || data.trim().isEmpty()) {
+            return entries;
+        }
+
+        String[] lines = data.split("\n");
+        for (String line : lines) {
+            if (line.trim().isEmpty()) continue;
+
+            String[] parts = line.split("\\|");
+            if (parts.length >= 3) {
+                try {
+                    String name = parts.length > 0 ? parts[0] : "Unknown";
+                    int score = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
+                    int seconds = parts.length > 2 ? Integer.parseInt(parts[2]) : 0;
+                    String text = parts.length > 3 ? parts[3] : "";
+                    String date = parts.length > 4 ? parts[4] : "";
+
+                    entries.add(new LeaderboardEntry(name, score, seconds, text, date));
+                } catch (NumberFormatException e) {
+                    // Skip invalid entries
+                }
+            }
+        }
+
+        return entries;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PipeLeaderboardParserBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.wordwizard;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the Dreamlo pipe format parser.
+ */
+public class PipeLeaderboardParserTest {
+
+    private static List<LeaderboardEntry> parse(String data) throws IOException {
+        return new PipeLeaderboardParser().parse(new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void parsesAllFields() throws IOException {
+        List<LeaderboardEntry> entries = parse("Alice|90|42|Level3|10/5/2025 8:15:02 AM\r\nBob|75|61|Level2|10/5/2025 9:00:00 AM\n");
+
+        assertEquals(2, entries.size());
+        LeaderboardEntry alice = entries.get(0);
+        assertEquals("Alice", alice.getName());
+        assertEquals(90, alice.getScore());
+        assertEquals(42, alice.getSeconds());
+        assertEquals("Level3", alice.getText());
+        assertEquals("10/5/2025 8:15:02 AM", alice.getDate());
+        assertEquals("10/5/2025 9:00:00 AM", entries.get(1).getDate());
+    }
+
+    @Test
+    public void skipsBlankShortAndInvalidRows() throws IOException {
+        List<LeaderboardEntry> entries = parse("\n  \nCarol|50\nDave|x|10|t|d\nErin|-5|7\nFrank|99999999999|1\n");
+
+        assertEquals(1, entries.size());
+        assertEquals("Erin", entries.get(0).getName());
+        assertEquals(-5, entries.get(0).getScore());
+        assertEquals("", entries.get(0).getText());
+        assertEquals("", entries.get(0).getDate());
+    }
+
+    @Test
+    public void handlesLastLineWithoutNewlineAndEmptyBody() throws IOException {
+        assertEquals(1, parse("Gina|10|20|Level1|date").size());
+        assertTrue(parse("").isEmpty());
+    }
+
+    @Test
+    public void handlesLinesSplitAcrossReads() throws IOException {
+        StringBuilder data = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            data.append("Player").append(i).append('|').append(i).append("|30|Level").append(i % 9)
+                    .append("|10/5/2025 8:15:02 AM\n");
+        }
+        byte[] bytes = data.toString().getBytes(StandardCharsets.UTF_8);
+        // Hand the bytes out a few at a time
+        InputStream trickle = new ByteArrayInputStream(bytes) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 7));
+            }
+        };
+
+        List<LeaderboardEntry> entries = new PipeLeaderboardParser().parse(trickle);
+        assertEquals(2000, entries.size());
+        assertEquals("Player1999", entries.get(1999).getName());
+        assertEquals(1999, entries.get(1999).getScore());
+    }
+
+    @Test
+    public void growsBufferForLongLines() throws IOException {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < 20000; i++) name.append('n');
+        List<LeaderboardEntry> entries = parse(name + "|1|2|t|d\nShort|3|4\n");
+
+        assertEquals(2, entries.size());
+        assertEquals(20000, entries.get(0).getName().length());
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.wordwizard;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for cancelling requests through their handle.
+ */
+public class RequestHandleTest {
+
+    @Test
+    public void cancelAbortsCallInFlight() throws Exception {
+        // A server that accepts the connection and never answers
+        try (ServerSocket server = new ServerSocket(0)) {
+            CompletableFuture<Socket> accepted = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return server.accept();
+                } catch (IOException e) {
+                    return null;
+                }
+            });
+            OkHttpClient client = new OkHttpClient.Builder()
+                    .readTimeout(30, TimeUnit.SECONDS)
+                    .build();
+            RequestHandle handle = new RequestHandle();
+            Request request = new Request.Builder()
+                    .url("http://localhost:" + server.getLocalPort() + "/word")
+                    .build();
+
+            CompletableFuture<Exception> result = CompletableFuture.supplyAsync(() -> {
+                try {
+                    handle.track(client.newCall(request)).execute().close();
+                    return null;
+                } catch (IOException e) {
+                    return e;
+                }
+            });
+            Socket socket = accepted.get(5, TimeUnit.SECONDS);
+            handle.cancel();
+
+            // Fails right away instead of waiting for the 30 s read timeout
+            assertNotNull(result.get(5, TimeUnit.SECONDS));
+            assertTrue(handle.isCancelled());
+            if (socket != null) socket.close();
+        }
+    }
+
+    @Test
+    public void trackAfterCancelFailsWithoutCalling() {
+        OkHttpClient client = new OkHttpClient();
+        RequestHandle handle = new RequestHandle();
+        handle.cancel();
+
+        try {
+            handle.track(client.newCall(new Request.Builder().url("http://localhost/").build()));
+            fail("Expected the cancelled handle to refuse new calls");
+        } catch (IOException expected) {
+            assertEquals("Canceled", expected.getMessage());
+        }
+    }
+}
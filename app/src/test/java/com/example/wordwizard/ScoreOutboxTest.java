@@ -0,0 +1,188 @@
+package com.example.wordwizard;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the score outbox: its log, batching and retries, against a fake Dreamlo.
+ */
+public class ScoreOutboxTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private NetworkScheduler scheduler;
+    private FakeDreamlo dreamlo;
+    private File log;
+    private final List<ScoreOutbox> outboxes = new ArrayList<>();
+
+    @Before
+    public void setUp() throws IOException {
+        scheduler = new NetworkScheduler(Executors.newFixedThreadPool(2), 2);
+        dreamlo = new FakeDreamlo(scheduler);
+        log = new File(folder.getRoot(), "score_outbox.log");
+    }
+
+    @After
+    public void tearDown() {
+        for (ScoreOutbox outbox : outboxes) {
+            outbox.shutdown();
+        }
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void replaysUnacknowledgedScoresAfterRestart() throws Exception {
+        Files.write(log.toPath(), ("ADD a Ann 50 30 2 1\n"
+                + "ADD b Bob 70 40 3 2\n"
+                + "ACK a\n"
+                // Torn write from a kill mid-append
+                + "ADD c Cy 6").getBytes(StandardCharsets.UTF_8));
+
+        ScoreOutbox outbox = open(0);
+        awaitTrue(() -> dreamlo.posts().size() == 1);
+        awaitTrue(() -> readLog().endsWith("ACK b\n"));
+
+        assertEquals(Collections.singletonList("Bob 70 40 3"), dreamlo.posts());
+        assertEquals(0, outbox.getPendingCount());
+    }
+
+    @Test
+    public void sendsOnlyTheBestScorePerPlayer() throws Exception {
+        ScoreOutbox outbox = open(200);
+        outbox.submit("Ann", 50, 30, 2);
+        outbox.submit("Ann", 80, 40, 3);
+        outbox.submit("Bob", 10, 90, 1);
+        // Same score, faster
+        outbox.submit("Ann", 80, 20, 3);
+
+        awaitTrue(() -> dreamlo.posts().size() == 2);
+        awaitTrue(() -> outboxPendingCount(outbox) == 0);
+        assertEquals(Arrays.asList("Ann 80 20 3", "Bob 10 90 1"), dreamlo.posts());
+    }
+
+    @Test
+    public void failedDrainIsRetriedWithBackoff() throws Exception {
+        dreamlo.failures.set(2);
+        ScoreOutbox outbox = open(0);
+        outbox.submit("Ann", 50, 30, 2);
+
+        awaitTrue(() -> dreamlo.posts().size() == 1);
+        awaitTrue(() -> outboxPendingCount(outbox) == 0);
+        assertEquals(3, dreamlo.attempts.get());
+        // 10ms, then 20ms, each at least halved by the jitter
+        assertTrue(dreamlo.lastAttemptNanos - dreamlo.firstAttemptNanos >= TimeUnit.MILLISECONDS.toNanos(15));
+    }
+
+    @Test
+    public void playersSentBeforeAFailureAreAcknowledged() throws Exception {
+        dreamlo.failOn = "Bob";
+        ScoreOutbox outbox = open(100);
+        outbox.submit("Ann", 50, 30, 2);
+        outbox.submit("Bob", 70, 40, 3);
+
+        awaitTrue(() -> readLog().contains("ACK"));
+        assertEquals(1, outboxPendingCount(outbox));
+        outbox.shutdown();
+
+        // After a restart only Bob is left to send
+        ScoreOutbox restarted = open(0);
+        assertEquals(1, restarted.getPendingCount());
+        assertEquals(Collections.singletonList("Ann 50 30 2"), dreamlo.posts());
+    }
+
+    @Test
+    public void logIsCompactedOnceScoresAreAcknowledged() throws Exception {
+        ScoreOutbox outbox = open(200);
+        for (int i = 0; i < 60; i++) {
+            outbox.submit("Ann", i, 30, 2);
+        }
+
+        awaitTrue(() -> outboxPendingCount(outbox) == 0);
+        // 60 ADD and 60 ACK records rewritten to nothing
+        awaitTrue(() -> log.length() == 0);
+        assertEquals(Collections.singletonList("Ann 59 30 2"), dreamlo.posts());
+    }
+
+    private ScoreOutbox open(long batchDelayMs) {
+        ScoreOutbox outbox = new ScoreOutbox(dreamlo, scheduler, log, batchDelayMs, 10);
+        outboxes.add(outbox);
+        return outbox;
+    }
+
+    private String readLog() {
+        try {
+            return new String(Files.readAllBytes(log.toPath()), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return "";
+        }
+    }
+
+    private static int outboxPendingCount(ScoreOutbox outbox) {
+        try {
+            return outbox.getPendingCount();
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue("Timed out", System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    // Records the scores posted, failing the first few attempts or one player on request
+    private static class FakeDreamlo extends DreamloService {
+        final AtomicInteger failures = new AtomicInteger();
+        final AtomicInteger attempts = new AtomicInteger();
+        volatile String failOn;
+        volatile long firstAttemptNanos;
+        volatile long lastAttemptNanos;
+        private final List<String> posts = new ArrayList<>();
+
+        FakeDreamlo(NetworkScheduler scheduler) {
+            super(() -> null, scheduler);
+        }
+
+        @Override
+        void postScore(String playerName, int score, int seconds, int level, RequestHandle handle) throws IOException {
+            lastAttemptNanos = System.nanoTime();
+            if (attempts.getAndIncrement() == 0) {
+                firstAttemptNanos = lastAttemptNanos;
+            }
+            if (failures.getAndUpdate(left -> Math.max(left - 1, 0)) > 0 || playerName.equals(failOn)) {
+                throw new IOException("Network error");
+            }
+            synchronized (posts) {
+                posts.add(playerName + " " + score + " " + seconds + " " + level);
+            }
+        }
+
+        List<String> posts() {
+            synchronized (posts) {
+                return new ArrayList<>(posts);
+            }
+        }
+    }
+}
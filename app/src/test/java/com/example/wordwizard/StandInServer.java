@@ -0,0 +1,439 @@
+package com.example.wordwizard;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for the word API, the thesaurus and Dreamlo, for tests and benchmarks that
+ * must not depend on the real services. Serves /word, /v1/thesaurus and Dreamlo's add, pipe and
+ * pipe-get paths over HTTP/1.1 with keep-alive, from one NIO selector thread.
+ * Faults can be injected at any time: response latency, 500 errors, slow bodies sent in chunks
+ * and connections dropped without an answer. Seeded, so a run can be repeated.
+ */
+class StandInServer implements Closeable {
+
+    /**
+     * Delay before a response starts
+     */
+    interface LatencyModel {
+        long nextDelayMillis(Random random);
+
+        static LatencyModel none() {
+            return random -> 0;
+        }
+
+        static LatencyModel fixed(long millis) {
+            return random -> millis;
+        }
+
+        static LatencyModel uniform(long minMillis, long maxMillis) {
+            return random -> minMillis + (long) (random.nextDouble() * (maxMillis - minMillis));
+        }
+
+        /**
+         * Long-tailed like a real server: median as given, sigma 1 puts p99 near 10x the median
+         */
+        static LatencyModel logNormal(long medianMillis, double sigma) {
+            return random -> (long) (medianMillis * Math.exp(sigma * random.nextGaussian()));
+        }
+    }
+
+    private static final String DATE = "10/5/2025 8:15:02 AM";
+    private static final int MAX_REQUEST_BYTES = 8 * 1024;
+
+    private final ServerSocketChannel serverChannel;
+    private final Selector selector;
+    private final Thread thread;
+    private final Random random;
+    private final List<String> words;
+    private final RankedLeaderboard dreamlo = new RankedLeaderboard();
+    private final Set<Connection> connections = new HashSet<>();
+    private volatile boolean running = true;
+
+    private volatile LatencyModel latency = LatencyModel.none();
+    private volatile double errorRate = 0;
+    private volatile double dropRate = 0;
+    private volatile int slowBodyChunkBytes = 0;
+    private volatile long slowBodyChunkDelayMillis = 0;
+
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+
+    /**
+     * Start serving on a free local port
+     * @param words Words /word picks from
+     */
+    StandInServer(List<String> words, long seed) throws IOException {
+        this.words = new ArrayList<>(words);
+        this.random = new Random(seed);
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress("127.0.0.1", 0));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        thread = new Thread(this::serve, "StandInServer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    String getBaseUrl() {
+        return "http://127.0.0.1:" + serverChannel.socket().getLocalPort();
+    }
+
+    Endpoints endpoints() {
+        return Endpoints.local(getBaseUrl());
+    }
+
+    void setLatency(LatencyModel latency) {
+        this.latency = latency;
+    }
+
+    // Share of requests answered with a 500
+    void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    // Share of requests whose connection is closed without an answer
+    void setDropRate(double dropRate) {
+        this.dropRate = dropRate;
+    }
+
+    /**
+     * Send bodies in chunks with a pause before each one, 0 bytes to send them whole
+     */
+    void setSlowBody(int chunkBytes, long chunkDelayMillis) {
+        this.slowBodyChunkBytes = chunkBytes;
+        this.slowBodyChunkDelayMillis = chunkDelayMillis;
+    }
+
+    int getRequestCount() {
+        return requestCount.get();
+    }
+
+    // Connections accepted, fewer than requests when keep-alive works
+    int getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    // Scores submitted through /add, kept the way Dreamlo keeps them
+    RankedLeaderboard getLeaderboard() {
+        return dreamlo;
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Connection connection : connections) {
+            connection.channel.close();
+        }
+        serverChannel.close();
+        selector.close();
+    }
+
+    private void serve() {
+        try {
+            while (running) {
+                selector.select(nextWakeMillis());
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        Connection connection = (Connection) key.attachment();
+                        if (key.isReadable()) read(connection);
+                        if (key.isValid() && key.isWritable()) write(connection);
+                    }
+                }
+                // Responses whose delay just ran out
+                for (Connection connection : new ArrayList<>(connections)) {
+                    write(connection);
+                }
+            }
+        } catch (IOException e) {
+            // Closed while selecting
+        }
+    }
+
+    // Time until the next delayed chunk is due, 0 to wait for I/O only
+    private long nextWakeMillis() {
+        long now = System.nanoTime();
+        long next = Long.MAX_VALUE;
+        for (Connection connection : connections) {
+            Chunk head = connection.pending.peek();
+            if (head != null) next = Math.min(next, head.readyAt);
+        }
+        if (next == Long.MAX_VALUE) return 0;
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(next - now) + 1);
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) return;
+        channel.configureBlocking(false);
+        Connection connection = new Connection(channel);
+        connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+        connections.add(connection);
+        connectionCount.incrementAndGet();
+    }
+
+    private void read(Connection connection) {
+        try {
+            if (connection.channel.read(connection.in) < 0) {
+                close(connection);
+                return;
+            }
+        } catch (IOException e) {
+            close(connection);
+            return;
+        }
+
+        // Handle every complete request in the buffer, pipelined ones included
+        int end;
+        while ((end = headerEnd(connection.in)) >= 0) {
+            byte[] header = new byte[end];
+            connection.in.flip();
+            connection.in.get(header);
+            connection.in.position(connection.in.position() + 4);
+            connection.in.compact();
+            handle(connection, new String(header, StandardCharsets.ISO_8859_1));
+        }
+        if (!connection.in.hasRemaining()) {
+            // Request too large for a stand-in
+            close(connection);
+        }
+    }
+
+    // Index of the blank line ending the request headers, -1 if not received yet
+    private static int headerEnd(ByteBuffer in) {
+        for (int i = 0; i + 3 < in.position(); i++) {
+            if (in.get(i) == '\r' && in.get(i + 1) == '\n' && in.get(i + 2) == '\r' && in.get(i + 3) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void handle(Connection connection, String header) {
+        requestCount.incrementAndGet();
+        String[] lines = header.split("\r\n");
+        String[] requestLine = lines[0].split(" ");
+        boolean closeAfter = false;
+        for (int i = 1; i < lines.length; i++) {
+            if (lines[i].equalsIgnoreCase("Connection: close")) closeAfter = true;
+        }
+
+        long readyAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, latency.nextDelayMillis(random)));
+        if (random.nextDouble() < dropRate) {
+            connection.pending.add(new Chunk(null, readyAt));
+            return;
+        }
+
+        int status;
+        String body;
+        if (requestLine.length < 2 || !"GET".equals(requestLine[0])) {
+            status = 405;
+            body = "Only GET";
+        } else if (random.nextDouble() < errorRate) {
+            status = 500;
+            body = "Injected error";
+        } else {
+            String[] response = route(requestLine[1]);
+            status = Integer.parseInt(response[0]);
+            body = response[1];
+        }
+        respond(connection, status, body, readyAt, closeAfter);
+    }
+
+    // Status and body for a path
+    private String[] route(String target) {
+        int queryStart = target.indexOf('?');
+        String path = queryStart < 0 ? target : target.substring(0, queryStart);
+        String query = queryStart < 0 ? "" : target.substring(queryStart + 1);
+
+        if (path.equals("/word")) {
+            String number = queryParameter(query, "number");
+            int count = number == null ? 1 : Integer.parseInt(number);
+            StringBuilder json = new StringBuilder("[");
+            for (int i = 0; i < count; i++) {
+                if (i > 0) json.append(',');
+                json.append('"').append(words.get(random.nextInt(words.size()))).append('"');
+            }
+            return new String[]{"200", json.append(']').toString()};
+        }
+        if (path.equals("/v1/thesaurus")) {
+            String word = queryParameter(query, "word");
+            return new String[]{"200", "{\"word\": \"" + word + "\", \"synonyms\": [\"" + word + "like\", \"quasi"
+                    + word + "\"], \"antonyms\": []}"};
+        }
+        if (path.startsWith("/lb/")) {
+            return dreamlo(path.split("/"));
+        }
+        return new String[]{"404", "Not found"};
+    }
+
+    // /lb/{code}/add/{name}/{score}/{seconds}/{text}, /lb/{code}/pipe/{n}, /pipe/{skip}/{take}, /pipe-get/{name}
+    private String[] dreamlo(String[] segments) {
+        if (segments.length < 4) return new String[]{"404", "Not found"};
+        String operation = segments[3];
+        try {
+            if (operation.equals("add") && segments.length >= 7) {
+                String text = segments.length > 7 ? segments[7] : "";
+                dreamlo.submit(new LeaderboardEntry(segments[4], Integer.parseInt(segments[5]),
+                        Integer.parseInt(segments[6]), text, DATE));
+                return new String[]{"200", "OK"};
+            }
+            if (operation.equals("pipe")) {
+                int skip = segments.length > 5 ? Integer.parseInt(segments[4]) : 0;
+                int take = Integer.parseInt(segments[segments.length > 5 ? 5 : 4]);
+                return new String[]{"200", pipe(dreamlo.getRows(skip, skip + take))};
+            }
+            if (operation.equals("pipe-get") && segments.length > 4) {
+                LeaderboardEntry entry = dreamlo.getEntry(segments[4]);
+                return new String[]{"200", entry == null ? "" : pipe(List.of(entry))};
+            }
+        } catch (NumberFormatException e) {
+            return new String[]{"400", "Bad number"};
+        }
+        return new String[]{"404", "Not found"};
+    }
+
+    private static String pipe(List<LeaderboardEntry> rows) {
+        StringBuilder text = new StringBuilder();
+        for (LeaderboardEntry entry : rows) {
+            text.append(entry.getName()).append('|').append(entry.getScore()).append('|')
+                    .append(entry.getSeconds()).append('|').append(entry.getText()).append('|')
+                    .append(entry.getDate()).append('\n');
+        }
+        return text.toString();
+    }
+
+    private static String queryParameter(String query, String name) {
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0 && pair.substring(0, equals).equals(name)) {
+                return pair.substring(equals + 1);
+            }
+        }
+        return null;
+    }
+
+    private void respond(Connection connection, int status, String body, long readyAt, boolean closeAfter) {
+        byte[] bodyBytes = body.getBytes(StandardCharsets.UTF_8);
+        String header = "HTTP/1.1 " + status + " " + reason(status) + "\r\n"
+                + "Content-Type: " + (body.startsWith("[") || body.startsWith("{") ? "application/json" : "text/plain")
+                + "\r\n"
+                + "Content-Length: " + bodyBytes.length + "\r\n"
+                + (closeAfter ? "Connection: close\r\n" : "")
+                + "\r\n";
+        byte[] headerBytes = header.getBytes(StandardCharsets.ISO_8859_1);
+
+        int chunkBytes = slowBodyChunkBytes;
+        if (chunkBytes <= 0) {
+            ByteBuffer whole = ByteBuffer.allocate(headerBytes.length + bodyBytes.length);
+            whole.put(headerBytes).put(bodyBytes).flip();
+            connection.pending.add(new Chunk(whole, readyAt));
+        } else {
+            connection.pending.add(new Chunk(ByteBuffer.wrap(headerBytes), readyAt));
+            long chunkDelay = TimeUnit.MILLISECONDS.toNanos(slowBodyChunkDelayMillis);
+            for (int offset = 0, i = 1; offset < bodyBytes.length; offset += chunkBytes, i++) {
+                int length = Math.min(chunkBytes, bodyBytes.length - offset);
+                connection.pending.add(new Chunk(ByteBuffer.wrap(bodyBytes, offset, length), readyAt + i * chunkDelay));
+            }
+        }
+        if (closeAfter) {
+            connection.pending.add(new Chunk(null, readyAt));
+        }
+    }
+
+    private static String reason(int status) {
+        switch (status) {
+            case 200: return "OK";
+            case 400: return "Bad Request";
+            case 404: return "Not Found";
+            case 405: return "Method Not Allowed";
+            default: return "Internal Server Error";
+        }
+    }
+
+    // Write what is due, in order; a chunk without data closes the connection
+    private void write(Connection connection) {
+        long now = System.nanoTime();
+        try {
+            Chunk head;
+            while ((head = connection.pending.peek()) != null && head.readyAt <= now) {
+                if (head.data == null) {
+                    close(connection);
+                    return;
+                }
+                connection.channel.write(head.data);
+                if (head.data.hasRemaining()) {
+                    connection.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+                connection.pending.poll();
+            }
+            if (connection.key.isValid()) {
+                connection.key.interestOps(SelectionKey.OP_READ);
+            }
+        } catch (IOException e) {
+            close(connection);
+        }
+    }
+
+    private void close(Connection connection) {
+        connections.remove(connection);
+        connection.key.cancel();
+        try {
+            connection.channel.close();
+        } catch (IOException e) {
+            // Already gone
+        }
+    }
+
+    private static class Connection {
+        final SocketChannel channel;
+        final ByteBuffer in = ByteBuffer.allocate(MAX_REQUEST_BYTES);
+        final ArrayDeque<Chunk> pending = new ArrayDeque<>();
+        SelectionKey key;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    // Bytes to send once readyAt (System.nanoTime) has passed, or null data to close the connection
+    private static class Chunk {
+        final ByteBuffer data;
+        final long readyAt;
+
+        Chunk(ByteBuffer data, long readyAt) {
+            this.data = data;
+            this.readyAt = readyAt;
+        }
+    }
+}
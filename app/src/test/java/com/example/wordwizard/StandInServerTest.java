@@ -0,0 +1,118 @@
+package com.example.wordwizard;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import okhttp3.OkHttpClient;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests running the services against the stand-in server.
+ */
+public class StandInServerTest {
+
+    private StandInServer server;
+    private ApiService api;
+    private DreamloService dreamlo;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new StandInServer(Arrays.asList("apple", "banana", "cherry"), 42);
+        OkHttpClient client = HttpClients.create(null, 5, 5, 5);
+        NetworkScheduler scheduler = new NetworkScheduler(Executors.newFixedThreadPool(2), 2);
+        api = new ApiService(client, scheduler, server.endpoints());
+        dreamlo = new DreamloService(client, scheduler, server.endpoints());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.close();
+    }
+
+    @Test
+    public void servesWordsAndSynonyms() throws IOException {
+        List<String> words = api.fetchRandomWords(5, new RequestHandle());
+        assertEquals(5, words.size());
+        assertTrue(Arrays.asList("apple", "banana", "cherry").containsAll(words));
+
+        assertEquals(Arrays.asList("applelike", "quasiapple"), api.fetchSynonyms("apple", new RequestHandle()));
+    }
+
+    @Test
+    public void keepsConnectionsAlive() throws IOException {
+        for (int i = 0; i < 10; i++) {
+            api.fetchRandomWords(1, new RequestHandle());
+        }
+        assertEquals(10, server.getRequestCount());
+        assertEquals(1, server.getConnectionCount());
+    }
+
+    @Test
+    public void ranksSubmittedScores() throws IOException {
+        dreamlo.postScore("Ann", 80, 30, 2, new RequestHandle());
+        dreamlo.postScore("Bob", 90, 40, 3, new RequestHandle());
+        dreamlo.postScore("Cy", 80, 20, 2, new RequestHandle());
+
+        LeaderboardSnapshot page = dreamlo.fetchPage(1, 2, new RequestHandle());
+        assertEquals(2, page.size());
+        assertEquals("Cy", page.getName(0));
+        assertEquals("Ann", page.getName(1));
+
+        LeaderboardEntry bob = dreamlo.fetchPlayer("Bob", new RequestHandle());
+        assertEquals(90, bob.getScore());
+        assertEquals("Level3", bob.getText());
+        assertNull(dreamlo.fetchPlayer("Dee", new RequestHandle()));
+    }
+
+    @Test
+    public void injectedErrorsOpenTheBreaker() throws IOException {
+        server.setErrorRate(1);
+        int failures = 0;
+        boolean rejected = false;
+        for (int i = 0; i < 20 && !rejected; i++) {
+            try {
+                api.fetchSynonyms("apple", new RequestHandle());
+            } catch (CircuitBreaker.CircuitOpenException e) {
+                rejected = true;
+            } catch (IOException e) {
+                failures++;
+            }
+        }
+        assertTrue(rejected);
+        assertEquals(failures, server.getRequestCount());
+        assertEquals(CircuitBreaker.State.OPEN, api.getThesaurusBreaker().getState());
+    }
+
+    @Test(expected = IOException.class)
+    public void droppedConnectionFails() throws IOException {
+        server.setDropRate(1);
+        dreamlo.fetchPage(0, 10, new RequestHandle());
+    }
+
+    @Test
+    public void slowBodyStillArrivesWhole() throws IOException {
+        server.setSlowBody(4, 20);
+        long start = System.nanoTime();
+        List<String> words = api.fetchRandomWords(3, new RequestHandle());
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(3, words.size());
+        // At least 4 chunks of 4 bytes for ~20 bytes of JSON
+        assertTrue(elapsedMillis >= 80);
+    }
+
+    @Test
+    public void latencyDelaysResponses() throws IOException {
+        server.setLatency(StandInServer.LatencyModel.fixed(100));
+        long start = System.nanoTime();
+        api.fetchSynonyms("apple", new RequestHandle());
+        assertTrue((System.nanoTime() - start) / 1_000_000 >= 100);
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.wordwizard;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.google.gson.Gson;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+import okio.Buffer;
+
+/**
+ * Cold-start cost of each component MainActivity builds, run on the JVM.
+ * Every call builds its component in a fresh class loader, so it pays class loading and static
+ * initialization the way the first launch of the app does. Run main() to execute.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+public class StartupCostBenchmark {
+
+    /**
+     * One component each, called reflectively inside the fresh class loader
+     */
+    public static class Probes {
+        public static void gameEngine() {
+            new GameEngine().startRound("wizard");
+        }
+
+        public static void networkScheduler() {
+            new NetworkScheduler().shutdown();
+        }
+
+        public static void httpClient() {
+            HttpClients.create(null, 5, 5, 5);
+        }
+
+        public static void jsonDecoders() throws IOException {
+            JsonDecoders.decode(JsonDecoders.WORD_LIST, new Buffer().writeUtf8("[\"wizard\"]"));
+        }
+
+        public static void apiService() {
+            new ApiService(HttpClients.create(null, 5, 5, 5), new NetworkScheduler());
+        }
+
+        public static void dreamloService() {
+            new DreamloService(HttpClients.create(null, 5, 5, 5), new NetworkScheduler());
+        }
+
+        public static void metricsRegistry() {
+            MetricsRegistry.getDefault().recordMillisSince("startup.ms", System.nanoTime());
+        }
+    }
+
+    @Param({"gameEngine", "metricsRegistry", "networkScheduler", "jsonDecoders", "httpClient", "apiService",
+            "dreamloService"})
+    public String probe;
+
+    private URLClassLoader loader;
+    private Method method;
+
+    // Loading the probe class itself is not part of the cost
+    @Setup(Level.Invocation)
+    public void newLoader() throws Exception {
+        loader = new URLClassLoader(classpath(), null);
+        method = Class.forName(Probes.class.getName(), true, loader).getMethod(probe);
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeLoader() throws IOException {
+        loader.close();
+    }
+
+    @Benchmark
+    public void coldStart() throws Exception {
+        method.invoke(null);
+    }
+
+    // Everything the probes load, Android stubs first so they win over any other copy
+    private static URL[] classpath() {
+        Set<URL> urls = new LinkedHashSet<>();
+        for (Class<?> type : new Class<?>[]{Handler.class, Looper.class, StartupCostBenchmark.class, ApiService.class,
+                GameEngine.class, OkHttpClient.class, Buffer.class, kotlin.Unit.class, Gson.class}) {
+            urls.add(type.getProtectionDomain().getCodeSource().getLocation());
+        }
+        return urls.toArray(new URL[0]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(StartupCostBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.wordwizard;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for how the synonym cache uses the scheduler lanes, against the stand-in server.
+ */
+public class SynonymCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private StandInServer server;
+    private NetworkScheduler scheduler;
+    private SynonymCache cache;
+
+    private static final ApiService.ApiCallback<List<String>> IGNORE = new ApiService.ApiCallback<List<String>>() {
+        @Override
+        public void onSuccess(List<String> result) {
+        }
+
+        @Override
+        public void onError(String error) {
+        }
+    };
+
+    @Before
+    public void setUp() throws IOException {
+        server = new StandInServer(Collections.singletonList("apple"), 1);
+        scheduler = new NetworkScheduler(Executors.newFixedThreadPool(2), 2);
+        ApiService api = new ApiService(HttpClients.create(null, 5, 5, 5), scheduler, server.endpoints());
+        cache = new SynonymCache(api, scheduler, folder.newFolder("synonyms"), 8, TimeUnit.DAYS.toMillis(1));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        scheduler.shutdown();
+        server.close();
+    }
+
+    @Test
+    public void hintJoiningQueuedPrefetchSkipsBackgroundWork() throws Exception {
+        // An outbox post or pool refill holding the background lane
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch blockerStarted = new CountDownLatch(1);
+        scheduler.submit(NetworkScheduler.Lane.BACKGROUND, () -> {
+            blockerStarted.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(blockerStarted.await(5, TimeUnit.SECONDS));
+
+        cache.prefetch("apple", IGNORE);
+        cache.getSynonyms("apple", IGNORE);
+
+        // The lookup runs on the hint lane while the background lane is still busy
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (server.getRequestCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, server.getRequestCount());
+        assertEquals(1, cache.getMergedRequests());
+        release.countDown();
+    }
+}
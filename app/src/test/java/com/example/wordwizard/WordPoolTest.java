@@ -0,0 +1,97 @@
+package com.example.wordwizard;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the word pool's refills, against the stand-in server.
+ */
+public class WordPoolTest {
+
+    private StandInServer server;
+    private NetworkScheduler scheduler;
+
+    private WordPool start(List<String> words) throws IOException {
+        server = new StandInServer(words, 3);
+        scheduler = new NetworkScheduler(Executors.newFixedThreadPool(2), 2);
+        ApiService api = new InlineApiService(scheduler, server.endpoints());
+        return new WordPool(api, 4, 4, 2);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        scheduler.shutdown();
+        server.close();
+    }
+
+    @Test
+    public void refillsOnlyBelowTheLowWaterMark() throws IOException {
+        WordPool pool = start(Collections.singletonList("giraffe"));
+
+        pool.prefetch(3);
+        assertEquals(1, server.getRequestCount());
+        // A batch of 20, of which 4 fit the bucket
+        assertEquals(4, pool.size());
+
+        // Still at least 2 long enough words, no refill
+        for (int i = 0; i < 2; i++) {
+            assertEquals(7, pool.poll(7).length());
+            pool.prefetch(7);
+        }
+        assertEquals(1, server.getRequestCount());
+
+        // Down to 1, below the low-water mark
+        assertEquals(7, pool.poll(7).length());
+        pool.prefetch(7);
+        assertEquals(2, server.getRequestCount());
+        assertEquals(2, pool.getRefillCount());
+        assertEquals(3, pool.getHitCount());
+    }
+
+    @Test
+    public void missingLongWordsStopAfterThreeRefillRounds() throws IOException {
+        WordPool pool = start(Arrays.asList("cat", "dog"));
+
+        pool.prefetch(6);
+        assertEquals(3, server.getRequestCount());
+        assertNull(pool.poll(6));
+        assertEquals(1, pool.getMissCount());
+        // The short words were kept for easier levels
+        assertEquals(3, pool.poll(3).length());
+    }
+
+    @Test
+    public void shutdownStopsRefills() throws IOException {
+        WordPool pool = start(Arrays.asList("cat", "dog"));
+
+        pool.shutdown();
+        pool.prefetch(3);
+        assertEquals(0, server.getRequestCount());
+    }
+
+    // Refills answered on the calling thread, local tests have no main looper to post to
+    private static class InlineApiService extends ApiService {
+        InlineApiService(NetworkScheduler scheduler, Endpoints endpoints) {
+            super(HttpClients.create(null, 5, 5, 5), scheduler, endpoints);
+        }
+
+        @Override
+        public RequestHandle getRandomWords(int count, ApiCallback<List<String>> callback) {
+            RequestHandle handle = new RequestHandle();
+            try {
+                callback.onSuccess(fetchRandomWords(count, handle));
+            } catch (IOException e) {
+                callback.onError(e.getMessage());
+            }
+            return handle;
+        }
+    }
+}
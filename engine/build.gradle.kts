@@ -0,0 +1,30 @@
+plugins {
+    `java-library`
+    alias(libs.plugins.jmh)
+}
+
+// Game rules without Android, so they can be tested and benchmarked on a plain JVM
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    testImplementation(libs.junit)
+}
+
+// Benchmarks in src/jmh, run with ./gradlew :engine:jmh (results in build/results/jmh)
+jmh {
+    jmhVersion = libs.versions.jmh
+    // Allocation per operation next to the timings
+    profilers.add("gc")
+    resultFormat = "JSON"
+}
+
+// Headless load run, e.g. ./gradlew :engine:simulate --args="10000 virtual 5"
+tasks.register<JavaExec>("simulate") {
+    group = "verification"
+    description = "Runs scripted game sessions in parallel and prints throughput and latency"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass = "com.example.wordwizard.LoadSimulator"
+}
@@ -0,0 +1,78 @@
+package com.example.wordwizard;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-action cost of the game rules. Guesses, clues and the round start are expected to stay
+ * allocation-free, check gc.alloc.rate.norm in the output (the gc profiler is on by default).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameEngineBenchmark {
+
+    private static final String WORD = "wizardry";
+
+    private GameEngine engine;
+    private SecretWordIndex index;
+    // What the EditText hands over: typed case and stray whitespace included
+    private final StringBuilder wrongGuess = new StringBuilder(" Wizards ");
+    private final StringBuilder correctGuess = new StringBuilder("WizardRy ");
+    private char letter = 'a';
+
+    @Setup
+    public void setUp() {
+        engine = new GameEngine(() -> 0L);
+        index = new SecretWordIndex(WORD);
+        engine.startRound(index);
+    }
+
+    @Benchmark
+    public GameEngine.GuessResult wrongGuess() {
+        GameEngine.GuessResult result = engine.guess(wrongGuess);
+        if (result == GameEngine.GuessResult.GAME_OVER) {
+            // Every tenth guess ends the game, restarting is part of the cost
+            engine.startNewGame();
+            engine.startRound(index);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public int checkLetter() {
+        if (!engine.canBuyClue()) {
+            engine.startNewGame();
+            engine.startRound(index);
+        }
+        letter = letter == 'z' ? 'a' : (char) (letter + 1);
+        return engine.checkLetter(letter);
+    }
+
+    @Benchmark
+    public int correctGuessAndLevelUp() {
+        engine.guess(correctGuess);
+        engine.levelUp();
+        engine.startRound(index);
+        return engine.getLevel();
+    }
+
+    // Building the index is the only per-round allocation
+    @Benchmark
+    public SecretWordIndex buildIndex() {
+        return new SecretWordIndex(WORD);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.wordwizard;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the local ranking with several threads submitting and querying at once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class RankedLeaderboardBenchmark {
+
+    @Param({"10000", "100000"})
+    public int players;
+
+    private RankedLeaderboard board;
+    private String[] names;
+
+    @Setup
+    public void setUp() {
+        board = new RankedLeaderboard();
+        names = new String[players];
+        for (int i = 0; i < players; i++) {
+            names[i] = "Player" + i;
+            board.submit(new LeaderboardEntry(names[i], i % 1000, i % 600, "Level1", ""));
+        }
+    }
+
+    // Mostly rejected like real resubmissions, the improving ones move the player
+    @Benchmark
+    public boolean submit() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String name = names[random.nextInt(players)];
+        return board.submit(new LeaderboardEntry(name, random.nextInt(1010), random.nextInt(600), "Level1", ""));
+    }
+
+    @Benchmark
+    public int rankOfPlayer() {
+        return board.getRank(names[ThreadLocalRandom.current().nextInt(players)]);
+    }
+
+    @Benchmark
+    public List<LeaderboardEntry> pageByRank() {
+        int from = ThreadLocalRandom.current().nextInt(players - 25);
+        return board.getRows(from, from + 25);
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.wordwizard;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Rules and round state of a game: scoring, attempts, level progression and hint gating.
+ * Plain Java without Android so it can run headless and be benchmarked. Not thread safe,
+ * the app drives it from the main thread.
+ * A game goes LOADING -> PLAYING -> WON or LOST. After WON, levelUp() loads the next round;
+ * after LOST only startNewGame() continues.
+ */
+public class GameEngine {
+
+    public enum Phase {
+        // Waiting for the round's word
+        LOADING,
+        PLAYING,
+        // The word was guessed, levelUp() starts the next round
+        WON,
+        // Out of attempts or points
+        LOST
+    }
+
+    public enum GuessResult {
+        // Not playing, or the guess was blank
+        IGNORED,
+        CORRECT,
+        WRONG,
+        // Wrong, and it was the last chance
+        GAME_OVER
+    }
+
+    public enum HintCheck {
+        AVAILABLE,
+        NOT_PLAYING,
+        // Not enough wrong guesses yet
+        TOO_EARLY,
+        ALREADY_USED,
+        INSUFFICIENT_SCORE
+    }
+
+    public static final int START_SCORE = 100;
+    public static final int START_ATTEMPTS = 10;
+    public static final int WRONG_GUESS_PENALTY = 10;
+    // Letter checks, the word length and the hint all cost the same
+    public static final int CLUE_COST = 5;
+    public static final int WRONG_GUESSES_BEFORE_HINT = 5;
+
+    private final LongSupplier clock;
+
+    private Phase phase = Phase.LOADING;
+    private SecretWordIndex secretWord = new SecretWordIndex("");
+    private int score;
+    private int attemptsLeft;
+    private int level;
+    private boolean hintUsed;
+    private int wrongGuessCount;
+    private long roundStartMillis;
+    private long roundEndMillis;
+
+    public GameEngine() {
+        this(System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock Current time in milliseconds, replaceable for tests and simulations
+     */
+    public GameEngine(LongSupplier clock) {
+        this.clock = clock;
+        startNewGame();
+    }
+
+    /**
+     * Reset to level 1 and wait for the first word
+     */
+    public void startNewGame() {
+        level = 1;
+        resetRound();
+    }
+
+    /**
+     * Go to the next level after a won round and wait for its word
+     */
+    public void levelUp() {
+        if (phase != Phase.WON) {
+            throw new IllegalStateException("Level up after " + phase);
+        }
+        level++;
+        resetRound();
+    }
+
+    private void resetRound() {
+        phase = Phase.LOADING;
+        score = START_SCORE;
+        attemptsLeft = START_ATTEMPTS;
+        hintUsed = false;
+        wrongGuessCount = 0;
+    }
+
+    /**
+     * The round's word has arrived, play starts
+     * @param word The secret word, lowercased
+     */
+    public void startRound(String word) {
+        startRound(new SecretWordIndex(word));
+    }
+
+    public void startRound(SecretWordIndex word) {
+        if (phase != Phase.LOADING) {
+            throw new IllegalStateException("New word while " + phase);
+        }
+        secretWord = word;
+        phase = Phase.PLAYING;
+        roundStartMillis = clock.getAsLong();
+    }
+
+    /**
+     * Judge a guess as typed, ignoring case and surrounding whitespace
+     */
+    public GuessResult guess(CharSequence guess) {
+        if (phase != Phase.PLAYING || SecretWordIndex.isBlank(guess)) {
+            return GuessResult.IGNORED;
+        }
+
+        if (secretWord.matches(guess)) {
+            phase = Phase.WON;
+            roundEndMillis = clock.getAsLong();
+            return GuessResult.CORRECT;
+        }
+
+        wrongGuessCount++;
+        attemptsLeft--;
+        deduct(WRONG_GUESS_PENALTY);
+        if (attemptsLeft <= 0 || score <= 0) {
+            phase = Phase.LOST;
+            roundEndMillis = clock.getAsLong();
+            return GuessResult.GAME_OVER;
+        }
+        return GuessResult.WRONG;
+    }
+
+    /**
+     * Whether the player can pay for a letter check or the word length
+     */
+    public boolean canBuyClue() {
+        return phase == Phase.PLAYING && score >= CLUE_COST;
+    }
+
+    /**
+     * Pay for a letter check
+     * @return how often the letter occurs in the word
+     */
+    public int checkLetter(char letter) {
+        buyClue();
+        return secretWord.countOf(letter);
+    }
+
+    /**
+     * Pay for the word length
+     */
+    public int revealLength() {
+        buyClue();
+        return secretWord.length();
+    }
+
+    public HintCheck checkHint() {
+        if (phase != Phase.PLAYING) return HintCheck.NOT_PLAYING;
+        if (wrongGuessCount < WRONG_GUESSES_BEFORE_HINT) return HintCheck.TOO_EARLY;
+        if (hintUsed) return HintCheck.ALREADY_USED;
+        if (score < CLUE_COST) return HintCheck.INSUFFICIENT_SCORE;
+        return HintCheck.AVAILABLE;
+    }
+
+    /**
+     * Pay for the round's hint, the caller shows it
+     */
+    public void useHint() {
+        HintCheck check = checkHint();
+        if (check != HintCheck.AVAILABLE) {
+            throw new IllegalStateException("Hint not available: " + check);
+        }
+        deduct(CLUE_COST);
+        hintUsed = true;
+    }
+
+    private void buyClue() {
+        if (!canBuyClue()) {
+            throw new IllegalStateException("Clue not available with score " + score + " while " + phase);
+        }
+        deduct(CLUE_COST);
+    }
+
+    private void deduct(int points) {
+        score = Math.max(0, score - points);
+    }
+
+    /**
+     * Minimum word length of a level, longer words as the levels go up
+     */
+    public static int minWordLength(int level) {
+        return 3 + level;
+    }
+
+    public int getMinWordLength() {
+        return minWordLength(level);
+    }
+
+    public Phase getPhase() {
+        return phase;
+    }
+
+    public boolean isPlaying() {
+        return phase == Phase.PLAYING;
+    }
+
+    public SecretWordIndex getSecretWord() {
+        return secretWord;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getAttemptsLeft() {
+        return attemptsLeft;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public boolean isHintUsed() {
+        return hintUsed;
+    }
+
+    public int getWrongGuessCount() {
+        return wrongGuessCount;
+    }
+
+    /**
+     * Seconds spent on the round, up to now while playing
+     */
+    public int getRoundSeconds() {
+        if (phase == Phase.LOADING) return 0;
+        long end = phase == Phase.PLAYING ? clock.getAsLong() : roundEndMillis;
+        return (int) ((end - roundStartMillis) / 1000);
+    }
+}
@@ -36,6 +36,11 @@ public class LeaderboardEntry {
     }
 
     public String getFormattedTime() {
+        return formatTime(seconds);
+    }
+
+    // mm:ss
+    public static String formatTime(int seconds) {
         int minutes = seconds / 60;
         int secs = seconds % 60;
         return String.format("%02d:%02d", minutes, secs);
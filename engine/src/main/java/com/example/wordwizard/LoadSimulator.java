@@ -0,0 +1,468 @@
+package com.example.wordwizard;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Headless load simulator: runs many scripted player sessions against GameEngine at once and
+ * reports throughput, latency percentiles per action and allocation.
+ * Each session plays rounds of guesses, letter checks, length queries and hints the way the app
+ * does, with words and synonyms from pluggable sources (which can add their own latency).
+ * Sessions run on a fixed thread pool, or on virtual threads when the JVM has them (Java 21+).
+ * Run with ./gradlew :engine:simulate, see main() for the arguments.
+ */
+public class LoadSimulator {
+
+    /**
+     * What a session does, timed separately
+     */
+    public enum Action {
+        WORD_FETCH,
+        GUESS,
+        LETTER_CHECK,
+        LENGTH_QUERY,
+        HINT
+    }
+
+    /**
+     * Secret words for the sessions, called from many threads at once
+     */
+    public interface WordSupplier {
+        String nextWord(int minLength, Random random);
+    }
+
+    /**
+     * Synonyms for hints, called from many threads at once
+     */
+    public interface SynonymSupplier {
+        List<String> synonyms(String word);
+    }
+
+    private final int sessions;
+    private final int threads;
+    private final boolean virtualThreads;
+    private final int maxRounds;
+    private final long seed;
+    private final WordSupplier words;
+    private final SynonymSupplier synonyms;
+
+    private LoadSimulator(Builder builder) {
+        this.sessions = builder.sessions;
+        this.threads = builder.threads;
+        this.virtualThreads = builder.virtualThreads;
+        this.maxRounds = builder.maxRounds;
+        this.seed = builder.seed;
+        this.words = builder.words;
+        this.synonyms = builder.synonyms;
+    }
+
+    /**
+     * Run all sessions and wait for them
+     */
+    public Report run() throws InterruptedException {
+        Map<Action, LogLinearHistogram> latencies = new EnumMap<>(Action.class);
+        for (Action action : Action.values()) {
+            latencies.put(action, new LogLinearHistogram());
+        }
+        AtomicLong rounds = new AtomicLong();
+        AtomicLong roundsWon = new AtomicLong();
+        AtomicLong allocatedBytes = new AtomicLong();
+        // Sessions whose allocation could be read, none on virtual threads
+        AtomicLong allocationSamples = new AtomicLong();
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        boolean measureAllocation = allocationMeasurable(threadBean);
+
+        ExecutorService executor = newExecutor();
+        String executorName = executor.getClass().getSimpleName();
+        long start = System.nanoTime();
+        List<Future<?>> results = new ArrayList<>(sessions);
+        for (int i = 0; i < sessions; i++) {
+            Session session = new Session(new Random(seed + i), latencies, rounds, roundsWon);
+            results.add(executor.submit(() -> {
+                long before = measureAllocation ? allocatedBytes(threadBean) : 0;
+                session.play();
+                if (measureAllocation) {
+                    long after = allocatedBytes(threadBean);
+                    if (before >= 0 && after >= 0) {
+                        allocatedBytes.addAndGet(after - before);
+                        allocationSamples.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        executor.shutdown();
+        int failed = 0;
+        for (Future<?> result : results) {
+            try {
+                result.get();
+            } catch (java.util.concurrent.ExecutionException e) {
+                failed++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        return new Report(sessions - failed, failed, rounds.get(), roundsWon.get(), elapsed, latencies,
+                allocationSamples.get() > 0 ? allocatedBytes.get() : -1, executorName);
+    }
+
+    private ExecutorService newExecutor() {
+        if (virtualThreads) {
+            try {
+                // Looked up at runtime, the module targets Java 11
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                // Older JVM, use the pool
+            }
+        }
+        return Executors.newFixedThreadPool(threads);
+    }
+
+    private static boolean allocationMeasurable(ThreadMXBean threadBean) {
+        if (!(threadBean instanceof com.sun.management.ThreadMXBean)) return false;
+        com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+        if (!allocationBean.isThreadAllocatedMemorySupported()) return false;
+        allocationBean.setThreadAllocatedMemoryEnabled(true);
+        return true;
+    }
+
+    // Bytes allocated by the current thread so far, -1 where unsupported (e.g. virtual threads)
+    private static long allocatedBytes(ThreadMXBean threadBean) {
+        return ((com.sun.management.ThreadMXBean) threadBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * One scripted player: plays rounds until the game is lost or maxRounds are won
+     */
+    private class Session {
+        private final Random random;
+        private final Map<Action, LogLinearHistogram> latencies;
+        private final AtomicLong rounds;
+        private final AtomicLong roundsWon;
+        private final GameEngine engine = new GameEngine();
+        private final StringBuilder guess = new StringBuilder();
+
+        Session(Random random, Map<Action, LogLinearHistogram> latencies, AtomicLong rounds, AtomicLong roundsWon) {
+            this.random = random;
+            this.latencies = latencies;
+            this.rounds = rounds;
+            this.roundsWon = roundsWon;
+        }
+
+        void play() {
+            for (int round = 0; round < maxRounds; round++) {
+                long start = System.nanoTime();
+                String word = words.nextWord(engine.getMinWordLength(), random);
+                engine.startRound(word);
+                record(Action.WORD_FETCH, start);
+                rounds.incrementAndGet();
+
+                if (!playRound()) return;
+                roundsWon.incrementAndGet();
+                engine.levelUp();
+            }
+        }
+
+        // Returns whether the round was won
+        private boolean playRound() {
+            int cluesBought = 0;
+            while (true) {
+                // Spend on clues now and then like a player would
+                if (engine.canBuyClue() && random.nextInt(4) == 0) {
+                    long start = System.nanoTime();
+                    engine.checkLetter((char) ('a' + random.nextInt(26)));
+                    record(Action.LETTER_CHECK, start);
+                    cluesBought++;
+                }
+                if (engine.canBuyClue() && random.nextInt(8) == 0) {
+                    long start = System.nanoTime();
+                    engine.revealLength();
+                    record(Action.LENGTH_QUERY, start);
+                    cluesBought++;
+                }
+                if (engine.checkHint() == GameEngine.HintCheck.AVAILABLE && random.nextBoolean()) {
+                    long start = System.nanoTime();
+                    engine.useHint();
+                    synonyms.synonyms(engine.getSecretWord().getWord());
+                    record(Action.HINT, start);
+                    cluesBought++;
+                }
+
+                // Clues make the right guess more likely
+                boolean correct = random.nextInt(100) < 12 + 8 * cluesBought;
+                fillGuess(correct);
+                long start = System.nanoTime();
+                GameEngine.GuessResult result = engine.guess(guess);
+                record(Action.GUESS, start);
+                if (result == GameEngine.GuessResult.CORRECT) return true;
+                if (result == GameEngine.GuessResult.GAME_OVER) return false;
+            }
+        }
+
+        // The word as typed (random case), or a near miss
+        private void fillGuess(boolean correct) {
+            String word = engine.getSecretWord().getWord();
+            guess.setLength(0);
+            for (int i = 0; i < word.length(); i++) {
+                char c = word.charAt(i);
+                guess.append(random.nextInt(4) == 0 ? Character.toUpperCase(c) : c);
+            }
+            if (!correct) {
+                guess.append('s');
+            }
+        }
+
+        private void record(Action action, long start) {
+            latencies.get(action).record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Words of random letters, at least minLength long
+     */
+    public static WordSupplier randomLetters() {
+        return (minLength, random) -> {
+            int length = minLength + random.nextInt(4);
+            char[] letters = new char[length];
+            for (int i = 0; i < length; i++) {
+                letters[i] = (char) ('a' + random.nextInt(26));
+            }
+            return new String(letters);
+        };
+    }
+
+    /**
+     * Random words from a list, the longest ones when none is long enough
+     */
+    public static WordSupplier fromList(List<String> wordList) {
+        List<String> sorted = new ArrayList<>(wordList);
+        sorted.sort((a, b) -> Integer.compare(a.length(), b.length()));
+        return (minLength, random) -> {
+            // First word that is long enough
+            int low = 0;
+            int high = sorted.size() - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (sorted.get(middle).length() < minLength) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return sorted.get(low + random.nextInt(sorted.size() - low));
+        };
+    }
+
+    /**
+     * Wrap a source so each call takes the given time, like a network lookup would
+     */
+    public static WordSupplier withLatency(WordSupplier source, long millis) {
+        return (minLength, random) -> {
+            sleep(millis);
+            return source.nextWord(minLength, random);
+        };
+    }
+
+    public static SynonymSupplier withLatency(SynonymSupplier source, long millis) {
+        return word -> {
+            sleep(millis);
+            return source.synonyms(word);
+        };
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static class Builder {
+        private int sessions = 1000;
+        private int threads = Runtime.getRuntime().availableProcessors();
+        private boolean virtualThreads = false;
+        private int maxRounds = 10;
+        private long seed = 42;
+        private WordSupplier words = randomLetters();
+        private SynonymSupplier synonyms = word -> Collections.singletonList(word);
+
+        public Builder sessions(int sessions) {
+            this.sessions = sessions;
+            return this;
+        }
+
+        public Builder threads(int threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * One virtual thread per session instead of the pool, if the JVM supports them
+         */
+        public Builder virtualThreads(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+            return this;
+        }
+
+        // Rounds a session plays at most, it ends earlier when the game is lost
+        public Builder maxRounds(int maxRounds) {
+            this.maxRounds = maxRounds;
+            return this;
+        }
+
+        // Session i plays with Random(seed + i), so runs are repeatable
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public Builder words(WordSupplier words) {
+            this.words = words;
+            return this;
+        }
+
+        public Builder synonyms(SynonymSupplier synonyms) {
+            this.synonyms = synonyms;
+            return this;
+        }
+
+        public LoadSimulator build() {
+            return new LoadSimulator(this);
+        }
+    }
+
+    /**
+     * Outcome of a run
+     */
+    public static class Report {
+        private final int sessions;
+        private final int failedSessions;
+        private final long rounds;
+        private final long roundsWon;
+        private final long elapsedNanos;
+        private final Map<Action, LogLinearHistogram> latencies;
+        private final long allocatedBytes;
+        private final String executor;
+
+        Report(int sessions, int failedSessions, long rounds, long roundsWon, long elapsedNanos,
+               Map<Action, LogLinearHistogram> latencies, long allocatedBytes, String executor) {
+            this.sessions = sessions;
+            this.failedSessions = failedSessions;
+            this.rounds = rounds;
+            this.roundsWon = roundsWon;
+            this.elapsedNanos = elapsedNanos;
+            this.latencies = latencies;
+            this.allocatedBytes = allocatedBytes;
+            this.executor = executor;
+        }
+
+        public int getSessions() {
+            return sessions;
+        }
+
+        // Sessions that threw, e.g. from a failing word source
+        public int getFailedSessions() {
+            return failedSessions;
+        }
+
+        public long getRounds() {
+            return rounds;
+        }
+
+        public long getRoundsWon() {
+            return roundsWon;
+        }
+
+        public long getActions() {
+            long actions = 0;
+            for (LogLinearHistogram histogram : latencies.values()) {
+                actions += histogram.getCount();
+            }
+            return actions;
+        }
+
+        public double getActionsPerSecond() {
+            return getActions() / (elapsedNanos / 1e9);
+        }
+
+        public double getSessionsPerSecond() {
+            return sessions / (elapsedNanos / 1e9);
+        }
+
+        /**
+         * Latency of an action in nanoseconds
+         */
+        public LogLinearHistogram getLatency(Action action) {
+            return latencies.get(action);
+        }
+
+        /**
+         * Bytes allocated by the sessions, -1 when the JVM can't tell (e.g. on virtual threads)
+         */
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        public double getAllocationRateMbPerSecond() {
+            return allocatedBytes < 0 ? -1 : allocatedBytes / (1024.0 * 1024.0) / (elapsedNanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            text.append(String.format(Locale.US, "%d sessions (%d failed) on %s in %d ms%n", sessions,
+                    failedSessions, executor, TimeUnit.NANOSECONDS.toMillis(elapsedNanos)));
+            text.append(String.format(Locale.US, "%d rounds, %d won, %.0f actions/s, %.0f sessions/s%n",
+                    rounds, roundsWon, getActionsPerSecond(), getSessionsPerSecond()));
+            if (allocatedBytes >= 0) {
+                text.append(String.format(Locale.US, "allocated %.1f MB, %.1f MB/s, %.0f B/action%n",
+                        allocatedBytes / (1024.0 * 1024.0), getAllocationRateMbPerSecond(),
+                        (double) allocatedBytes / Math.max(1, getActions())));
+            } else {
+                text.append(String.format("allocation not measurable on this executor%n"));
+            }
+            text.append(String.format(Locale.US, "%-13s %10s %10s %10s %10s %10s%n",
+                    "action (ns)", "count", "p50", "p90", "p99", "max"));
+            for (Action action : Action.values()) {
+                LogLinearHistogram histogram = latencies.get(action);
+                text.append(String.format(Locale.US, "%-13s %10d %10d %10d %10d %10d%n", action,
+                        histogram.getCount(), histogram.getPercentile(0.5), histogram.getPercentile(0.9),
+                        histogram.getPercentile(0.99), histogram.getMax()));
+            }
+            return text.toString();
+        }
+    }
+
+    /**
+     * Arguments: [sessions] [threads, or "virtual"] [source latency in ms]
+     */
+    public static void main(String[] args) throws InterruptedException {
+        Builder builder = new Builder();
+        if (args.length > 0) builder.sessions(Integer.parseInt(args[0]));
+        if (args.length > 1) {
+            if ("virtual".equals(args[1])) {
+                builder.virtualThreads(true);
+            } else {
+                builder.threads(Integer.parseInt(args[1]));
+            }
+        }
+        if (args.length > 2) {
+            long latency = Long.parseLong(args[2]);
+            builder.words(withLatency(randomLetters(), latency))
+                    .synonyms(withLatency(word -> Collections.singletonList(word), latency));
+        }
+        System.out.print(builder.build().run());
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.wordwizard;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of non-negative values with log-linear buckets: exact below 16, then every power
+ * of two is split into 8 buckets, so percentiles are within 12.5% of the real value.
+ * Fixed size (488 buckets) whatever the range, recording never allocates. Thread safe.
+ */
+public class LogLinearHistogram {
+
+    private static final int LINEAR_BUCKETS = 16;
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Powers of two from 2^4 to 2^62
+    private static final int BUCKETS = LINEAR_BUCKETS + (63 - 4) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * @param value Recorded value, negative values count as 0
+     */
+    public void record(long value) {
+        long v = Math.max(0, value);
+        counts.incrementAndGet(bucketOf(v));
+        count.incrementAndGet();
+        sum.addAndGet(v);
+        long current;
+        while (v > (current = max.get()) && !max.compareAndSet(current, v)) {
+            // Retry until the larger value is stored
+        }
+    }
+
+    /**
+     * Add everything recorded by another histogram
+     */
+    public void add(LogLinearHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long bucketCount = other.counts.get(i);
+            if (bucketCount != 0) counts.addAndGet(i, bucketCount);
+        }
+        count.addAndGet(other.count.get());
+        sum.addAndGet(other.sum.get());
+        long otherMax = other.max.get();
+        long current;
+        while (otherMax > (current = max.get()) && !max.compareAndSet(current, otherMax)) {
+            // Retry until the larger value is stored
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long values = count.get();
+        return values == 0 ? 0 : (double) sum.get() / values;
+    }
+
+    /**
+     * Upper bound of the bucket holding the percentile (0-1), never above the max, 0 when empty
+     */
+    public long getPercentile(double percentile) {
+        long values = count.get();
+        if (values == 0) return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(percentile * values));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Forget everything recorded so far
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    static int bucketOf(long value) {
+        if (value < LINEAR_BUCKETS) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_BUCKETS + (exponent - 4) * SUB_BUCKETS + sub;
+    }
+
+    // Largest value that lands in the bucket
+    static long upperBound(int bucket) {
+        if (bucket < LINEAR_BUCKETS) return bucket;
+        int exponent = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + 4;
+        int sub = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        long lower = (1L << exponent) + sub * width;
+        return lower + width - 1;
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.wordwizard;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Named counters, gauges and latency histograms for the hot paths, cheap enough to update on
+ * every request: counters are LongAdders, histograms are {@link LogLinearHistogram}s, and after a
+ * metric's first use updating it takes no lock and allocates nothing.
+ * Snapshots are written as text, one metric per line sorted by name:
+ * <pre>
+ * &#64;1760000000000
+ * c word.random.errors 2
+ * g scheduler.ROUND_WORD.queued 0
+ * h word.random.ms 41 118.3 96 211 479 512
+ * </pre>
+ * where a histogram line is count, mean, p50, p90, p99 and max. Values are cumulative since the
+ * process started, so the difference of two snapshots covers the time between them.
+ */
+public class MetricsRegistry {
+
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+    private final Map<String, LogLinearHistogram> histograms = new ConcurrentHashMap<>();
+
+    /**
+     * The registry shared by the whole app
+     */
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    public LongAdder counter(String name) {
+        LongAdder counter = counters.get(name);
+        return counter != null ? counter : counters.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+    public void increment(String name) {
+        counter(name).increment();
+    }
+
+    public LogLinearHistogram histogram(String name) {
+        LogLinearHistogram histogram = histograms.get(name);
+        return histogram != null ? histogram : histograms.computeIfAbsent(name, key -> new LogLinearHistogram());
+    }
+
+    /**
+     * Record the milliseconds since startNanos (a System.nanoTime() value)
+     */
+    public void recordMillisSince(String name, long startNanos) {
+        histogram(name).record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
+    /**
+     * Read a value whenever a snapshot is taken, replacing any gauge of the same name
+     */
+    public void gauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    public void removeGauge(String name) {
+        gauges.remove(name);
+    }
+
+    /**
+     * Write a snapshot of every metric
+     * @param timeMillis Wall clock time the snapshot is stamped with
+     */
+    public void writeSnapshot(Appendable out, long timeMillis) throws IOException {
+        out.append('@').append(Long.toString(timeMillis)).append('\n');
+        for (Map.Entry<String, LongAdder> counter : new TreeMap<>(counters).entrySet()) {
+            out.append("c ").append(counter.getKey()).append(' ')
+                    .append(Long.toString(counter.getValue().sum())).append('\n');
+        }
+        for (Map.Entry<String, LongSupplier> gauge : new TreeMap<>(gauges).entrySet()) {
+            out.append("g ").append(gauge.getKey()).append(' ')
+                    .append(Long.toString(gauge.getValue().getAsLong())).append('\n');
+        }
+        for (Map.Entry<String, LogLinearHistogram> entry : new TreeMap<>(histograms).entrySet()) {
+            LogLinearHistogram histogram = entry.getValue();
+            out.append("h ").append(entry.getKey())
+                    .append(' ').append(Long.toString(histogram.getCount()))
+                    .append(' ').append(String.format(Locale.ROOT, "%.1f", histogram.getMean()))
+                    .append(' ').append(Long.toString(histogram.getPercentile(0.5)))
+                    .append(' ').append(Long.toString(histogram.getPercentile(0.9)))
+                    .append(' ').append(Long.toString(histogram.getPercentile(0.99)))
+                    .append(' ').append(Long.toString(histogram.getMax()))
+                    .append('\n');
+        }
+    }
+
+    /**
+     * Append a snapshot to the file every period, on a background thread
+     * @param maxBytes Once the file grows past this it is moved to "name.1", replacing the previous one
+     */
+    public Exporter startExport(File file, long periodMillis, long maxBytes) {
+        return new Exporter(file, periodMillis, maxBytes);
+    }
+
+    /**
+     * Periodic export to a file, closing it writes a last snapshot without waiting for it
+     */
+    public class Exporter implements Closeable {
+        private final File file;
+        private final long maxBytes;
+        private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "MetricsExport");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Exporter(File file, long periodMillis, long maxBytes) {
+            this.file = file;
+            this.maxBytes = maxBytes;
+            executor.scheduleWithFixedDelay(this::export, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * Write a snapshot now, e.g. when the app goes to the background
+         */
+        public void exportNow() {
+            if (!executor.isShutdown()) {
+                executor.execute(this::export);
+            }
+        }
+
+        private void export() {
+            if (file.length() > maxBytes) {
+                File previous = new File(file.getPath() + ".1");
+                previous.delete();
+                file.renameTo(previous);
+            }
+            try (Writer out = new BufferedWriter(new FileWriter(file, true))) {
+                writeSnapshot(out, System.currentTimeMillis());
+            } catch (IOException e) {
+                // Metrics are best effort, try again next period
+            }
+        }
+
+        @Override
+        public void close() {
+            if (executor.isShutdown()) return;
+            // The periodic export is dropped, the last one still runs
+            executor.execute(this::export);
+            executor.shutdown();
+        }
+
+        /**
+         * Wait until the last snapshot is written, for tests
+         */
+        boolean awaitClosed(long timeout, TimeUnit unit) throws InterruptedException {
+            return executor.awaitTermination(timeout, unit);
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.example.wordwizard;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Local ranking of every player's best score, ordered like Dreamlo: higher score first, then
+ * fewer seconds, then name. Backed by a treap whose nodes count their subtree, so submitting,
+ * the rank of a player and rows by rank or score all take O(log n) (plus the rows returned).
+ * Submissions keep the better of the old and new entry per player, which makes merging Dreamlo
+ * pages and local submissions order-independent: the board can be filled from any mix of
+ * server snapshots and scores not uploaded yet and ends up the same.
+ * Thread safe, queries run in parallel and submissions take a short exclusive lock.
+ */
+public class RankedLeaderboard {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Node> players = new HashMap<>();
+    private Node root;
+    // xorshift state for node priorities, only touched under the write lock
+    private int seed = 0x2545F491;
+
+    // Results of split(), only used under the write lock
+    private Node splitLeft;
+    private Node splitRight;
+
+    private static final class Node {
+        final LeaderboardEntry entry;
+        final int priority;
+        int size = 1;
+        Node left;
+        Node right;
+
+        Node(LeaderboardEntry entry, int priority) {
+            this.entry = entry;
+            this.priority = priority;
+        }
+    }
+
+    /**
+     * Record a score, kept only if it beats the player's current entry
+     * @return whether the entry is now the player's best
+     */
+    public boolean submit(LeaderboardEntry entry) {
+        lock.writeLock().lock();
+        try {
+            Node current = players.get(entry.getName());
+            if (current != null) {
+                if (compare(entry, current.entry) >= 0) return false;
+                remove(current.entry);
+            }
+            Node node = new Node(entry, nextPriority());
+            insert(node);
+            players.put(entry.getName(), node);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Submit every entry, e.g. a page fetched from Dreamlo
+     * @return how many of them improved a player's entry
+     */
+    public int mergeAll(Iterable<LeaderboardEntry> entries) {
+        lock.writeLock().lock();
+        try {
+            int improved = 0;
+            for (LeaderboardEntry entry : entries) {
+                if (submit(entry)) improved++;
+            }
+            return improved;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop a player, e.g. after Dreamlo deleted them
+     */
+    public boolean remove(String name) {
+        lock.writeLock().lock();
+        try {
+            Node node = players.remove(name);
+            if (node == null) return false;
+            remove(node.entry);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public LeaderboardEntry getEntry(String name) {
+        lock.readLock().lock();
+        try {
+            Node node = players.get(name);
+            return node == null ? null : node.entry;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 1-based rank of the player, 0 if they have no entry
+     */
+    public int getRank(String name) {
+        lock.readLock().lock();
+        try {
+            Node node = players.get(name);
+            return node == null ? 0 : countBefore(node.entry) + 1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Entries at rows [from, to) in rank order, rows are 0-based
+     */
+    public List<LeaderboardEntry> getRows(int from, int to) {
+        lock.readLock().lock();
+        try {
+            int start = Math.max(0, from);
+            int end = Math.min(size(root), to);
+            if (start >= end) return Collections.emptyList();
+            List<LeaderboardEntry> rows = new ArrayList<>(end - start);
+            collect(root, 0, start, end, rows);
+            return rows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Entries scoring between min and max (inclusive), best first
+     */
+    public List<LeaderboardEntry> getScoresBetween(int min, int max) {
+        lock.readLock().lock();
+        try {
+            if (min > max) return Collections.emptyList();
+            return getRows(countAbove(max), min == Integer.MIN_VALUE ? size(root) : countAbove(min - 1));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of players scoring more than the score, i.e. the rank a new score would get minus one
+     * (ties on score rank by seconds)
+     */
+    public int countAbove(int score) {
+        lock.readLock().lock();
+        try {
+            int count = 0;
+            Node node = root;
+            while (node != null) {
+                if (node.entry.getScore() > score) {
+                    count += size(node.left) + 1;
+                    node = node.right;
+                } else {
+                    node = node.left;
+                }
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size(root);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Dreamlo's order: score descending, then seconds ascending, then name for a total order
+    static int compare(LeaderboardEntry a, LeaderboardEntry b) {
+        int byScore = Integer.compare(b.getScore(), a.getScore());
+        if (byScore != 0) return byScore;
+        int bySeconds = Integer.compare(a.getSeconds(), b.getSeconds());
+        if (bySeconds != 0) return bySeconds;
+        return a.getName().compareTo(b.getName());
+    }
+
+    private int countBefore(LeaderboardEntry entry) {
+        int count = 0;
+        Node node = root;
+        while (node != null) {
+            int c = compare(entry, node.entry);
+            if (c == 0) {
+                return count + size(node.left);
+            } else if (c < 0) {
+                node = node.left;
+            } else {
+                count += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return count;
+    }
+
+    // In-order walk of the rows [from, to), skipping subtrees outside the range
+    private static void collect(Node node, int offset, int from, int to, List<LeaderboardEntry> rows) {
+        if (node == null || offset >= to || offset + node.size <= from) return;
+        int row = offset + size(node.left);
+        collect(node.left, offset, from, to, rows);
+        if (row >= from && row < to) {
+            rows.add(node.entry);
+        }
+        collect(node.right, row + 1, from, to, rows);
+    }
+
+    private void insert(Node node) {
+        split(root, node.entry, false);
+        Node right = splitRight;
+        root = merge(merge(splitLeft, node), right);
+    }
+
+    private void remove(LeaderboardEntry entry) {
+        split(root, entry, false);
+        Node left = splitLeft;
+        // splitRight starts with the entry itself
+        split(splitRight, entry, true);
+        root = merge(left, splitRight);
+    }
+
+    // Split into nodes before the entry and the rest, with inclusive the entry goes left too
+    private void split(Node node, LeaderboardEntry entry, boolean inclusive) {
+        if (node == null) {
+            splitLeft = null;
+            splitRight = null;
+            return;
+        }
+        int c = compare(node.entry, entry);
+        if (c < 0 || inclusive && c == 0) {
+            split(node.right, entry, inclusive);
+            node.right = splitLeft;
+            update(node);
+            splitLeft = node;
+        } else {
+            split(node.left, entry, inclusive);
+            node.left = splitRight;
+            update(node);
+            splitRight = node;
+        }
+    }
+
+    // Join two treaps where every node of a comes before every node of b
+    private static Node merge(Node a, Node b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            update(a);
+            return a;
+        }
+        b.left = merge(a, b.left);
+        update(b);
+        return b;
+    }
+
+    private static void update(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private int nextPriority() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return seed;
+    }
+}
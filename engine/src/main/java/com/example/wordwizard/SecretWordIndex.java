@@ -0,0 +1,131 @@
+package com.example.wordwizard;
+
+/**
+ * Letter index of the current secret word, built once when the word loads.
+ * Letter counts, positions, length and first/last letter are answered from precomputed tables
+ * without allocating, and guesses are compared without trimming or lowercasing them first.
+ * Letters a-z are indexed, any other character falls back to scanning the word.
+ */
+public final class SecretWordIndex {
+
+    private static final int LETTERS = 26;
+    // Positions past this are only found by scanning, no real word gets there
+    private static final int MAX_INDEXED_POSITIONS = 64;
+
+    private final String word;
+    private final int[] counts = new int[LETTERS];
+    // Bit i is set when the letter is at position i
+    private final long[] positions = new long[LETTERS];
+
+    /**
+     * @param word The secret word, lowercased by the caller
+     */
+    public SecretWordIndex(String word) {
+        this.word = word;
+        for (int i = 0; i < word.length(); i++) {
+            int slot = slotOf(word.charAt(i));
+            if (slot < 0) continue;
+            counts[slot]++;
+            if (i < MAX_INDEXED_POSITIONS) {
+                positions[slot] |= 1L << i;
+            }
+        }
+    }
+
+    public String getWord() {
+        return word;
+    }
+
+    public int length() {
+        return word.length();
+    }
+
+    public char getFirstLetter() {
+        return word.charAt(0);
+    }
+
+    public char getLastLetter() {
+        return word.charAt(word.length() - 1);
+    }
+
+    /**
+     * Letter at a 0-based position, for "letter at position k" hints
+     */
+    public char letterAt(int position) {
+        return word.charAt(position);
+    }
+
+    /**
+     * How often the letter occurs, case-insensitive
+     */
+    public int countOf(char letter) {
+        char lower = Character.toLowerCase(letter);
+        int slot = slotOf(lower);
+        if (slot >= 0) {
+            return counts[slot];
+        }
+        int count = 0;
+        for (int i = 0; i < word.length(); i++) {
+            if (word.charAt(i) == lower) count++;
+        }
+        return count;
+    }
+
+    public boolean contains(char letter) {
+        return countOf(letter) > 0;
+    }
+
+    /**
+     * Positions of the letter as a bitmask, bit i set for position i (first 64 positions only)
+     */
+    public long positionsOf(char letter) {
+        char lower = Character.toLowerCase(letter);
+        int slot = slotOf(lower);
+        if (slot >= 0) {
+            return positions[slot];
+        }
+        long mask = 0;
+        for (int i = 0; i < Math.min(word.length(), MAX_INDEXED_POSITIONS); i++) {
+            if (word.charAt(i) == lower) mask |= 1L << i;
+        }
+        return mask;
+    }
+
+    public boolean isAt(char letter, int position) {
+        if (position < 0 || position >= word.length()) return false;
+        if (position < MAX_INDEXED_POSITIONS) {
+            return (positionsOf(letter) & (1L << position)) != 0;
+        }
+        return word.charAt(position) == Character.toLowerCase(letter);
+    }
+
+    /**
+     * Whether the guess is the word, ignoring case and surrounding whitespace
+     */
+    public boolean matches(CharSequence guess) {
+        int start = 0;
+        int end = guess.length();
+        while (start < end && Character.isWhitespace(guess.charAt(start))) start++;
+        while (end > start && Character.isWhitespace(guess.charAt(end - 1))) end--;
+        if (end - start != word.length()) return false;
+
+        for (int i = 0; i < word.length(); i++) {
+            if (Character.toLowerCase(guess.charAt(start + i)) != word.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Whether the guess has nothing but whitespace in it
+     */
+    public static boolean isBlank(CharSequence guess) {
+        for (int i = 0; i < guess.length(); i++) {
+            if (!Character.isWhitespace(guess.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    private static int slotOf(char c) {
+        return c >= 'a' && c <= 'z' ? c - 'a' : -1;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.wordwizard;
+
+/**
+ * Recent values as a current and a previous {@link LogLinearHistogram}, so old values age out
+ * without being stored. The owner decides when a window ends, by time or by count, and calls
+ * {@link #rotate()}. Percentiles are taken over both windows. Thread safe, never allocates after
+ * construction.
+ */
+public class WindowedHistogram {
+
+    private LogLinearHistogram current = new LogLinearHistogram();
+    private LogLinearHistogram previous = new LogLinearHistogram();
+    // Both windows added together, rebuilt for each percentile
+    private final LogLinearHistogram merged = new LogLinearHistogram();
+
+    public synchronized void record(long value) {
+        current.record(value);
+    }
+
+    /**
+     * Start a new window, the current one becomes the previous and the previous is dropped
+     */
+    public synchronized void rotate() {
+        LogLinearHistogram dropped = previous;
+        previous = current;
+        current = dropped;
+        current.reset();
+    }
+
+    /**
+     * Drop both windows
+     */
+    public synchronized void clear() {
+        current.reset();
+        previous.reset();
+    }
+
+    // Values in the current window only, for count based windows
+    public synchronized long getCurrentCount() {
+        return current.getCount();
+    }
+
+    public synchronized long getCount() {
+        return current.getCount() + previous.getCount();
+    }
+
+    /**
+     * Percentile (0-1) over both windows, 0 when empty
+     */
+    public synchronized long getPercentile(double percentile) {
+        merged.reset();
+        merged.add(previous);
+        merged.add(current);
+        return merged.getPercentile(percentile);
+    }
+}
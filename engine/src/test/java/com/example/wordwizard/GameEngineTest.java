@@ -0,0 +1,75 @@
+package com.example.wordwizard;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the round state machine.
+ */
+public class GameEngineTest {
+
+    private final AtomicLong now = new AtomicLong(0);
+    private final GameEngine engine = new GameEngine(now::get);
+
+    @Test
+    public void correctGuessWinsAndLevelsUp() {
+        assertEquals(GameEngine.Phase.LOADING, engine.getPhase());
+        assertEquals(GameEngine.GuessResult.IGNORED, engine.guess("wizard"));
+
+        engine.startRound("wizard");
+        now.addAndGet(12_500);
+        assertEquals(GameEngine.GuessResult.CORRECT, engine.guess(" Wizard"));
+        assertEquals(GameEngine.Phase.WON, engine.getPhase());
+        assertEquals(12, engine.getRoundSeconds());
+
+        engine.levelUp();
+        assertEquals(2, engine.getLevel());
+        assertEquals(5, engine.getMinWordLength());
+        assertEquals(GameEngine.START_SCORE, engine.getScore());
+        assertEquals(GameEngine.Phase.LOADING, engine.getPhase());
+    }
+
+    @Test
+    public void wrongGuessesEndTheGame() {
+        engine.startRound("wizard");
+        for (int i = 1; i < GameEngine.START_ATTEMPTS; i++) {
+            assertEquals(GameEngine.GuessResult.WRONG, engine.guess("goblin"));
+        }
+        assertEquals(10, engine.getScore());
+        assertEquals(GameEngine.GuessResult.GAME_OVER, engine.guess("goblin"));
+        assertEquals(GameEngine.Phase.LOST, engine.getPhase());
+        assertEquals(0, engine.getScore());
+        assertEquals(GameEngine.GuessResult.IGNORED, engine.guess("wizard"));
+    }
+
+    @Test
+    public void hintNeedsWrongGuessesAndCostsPoints() {
+        engine.startRound("wizard");
+        assertEquals(GameEngine.HintCheck.TOO_EARLY, engine.checkHint());
+        for (int i = 0; i < GameEngine.WRONG_GUESSES_BEFORE_HINT; i++) {
+            engine.guess("goblin");
+        }
+        assertEquals(GameEngine.HintCheck.AVAILABLE, engine.checkHint());
+
+        engine.useHint();
+        assertEquals(45, engine.getScore());
+        assertEquals(GameEngine.HintCheck.ALREADY_USED, engine.checkHint());
+    }
+
+    @Test
+    public void cluesCostPointsUntilTheScoreRunsOut() {
+        engine.startRound("wizard");
+        assertEquals(1, engine.checkLetter('Z'));
+        assertEquals(6, engine.revealLength());
+        assertEquals(90, engine.getScore());
+
+        while (engine.canBuyClue()) {
+            engine.checkLetter('a');
+        }
+        assertEquals(0, engine.getScore());
+        assertEquals(GameEngine.HintCheck.NOT_PLAYING, new GameEngine().checkHint());
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.wordwizard;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the load simulator and its histogram.
+ */
+public class LoadSimulatorTest {
+
+    @Test
+    public void runsAllSessions() throws Exception {
+        LoadSimulator.Report report = new LoadSimulator.Builder()
+                .sessions(200)
+                .threads(4)
+                .maxRounds(5)
+                .build()
+                .run();
+
+        assertEquals(200, report.getSessions());
+        assertEquals(0, report.getFailedSessions());
+        assertTrue(report.getRounds() >= 200);
+        assertEquals(report.getRounds(), report.getLatency(LoadSimulator.Action.WORD_FETCH).getCount());
+        assertTrue(report.getLatency(LoadSimulator.Action.GUESS).getCount() >= report.getRounds());
+        assertTrue(report.getActionsPerSecond() > 0);
+        assertTrue(report.toString().contains("GUESS"));
+    }
+
+    @Test
+    public void failingSourceFailsSessionsOnly() throws Exception {
+        LoadSimulator.Report report = new LoadSimulator.Builder()
+                .sessions(10)
+                .threads(2)
+                .words((minLength, random) -> {
+                    throw new IllegalStateException("Word source down");
+                })
+                .build()
+                .run();
+
+        assertEquals(10, report.getFailedSessions());
+    }
+
+    @Test
+    public void allocationIsUnknownOnVirtualThreads() throws Exception {
+        LoadSimulator.Report report = new LoadSimulator.Builder()
+                .sessions(20)
+                .virtualThreads(true)
+                .maxRounds(2)
+                .build()
+                .run();
+
+        // Older JVMs fall back to the pool, where allocation can be read
+        Assume.assumeFalse(report.toString().contains("ThreadPoolExecutor"));
+        assertEquals(-1, report.getAllocatedBytes());
+        assertTrue(report.toString().contains("allocation not measurable"));
+    }
+
+    @Test
+    public void listSourceHonoursMinLength() {
+        LoadSimulator.WordSupplier words = LoadSimulator.fromList(List.of("cat", "wizard", "dragon", "owl"));
+        Random random = new Random(1);
+        for (int i = 0; i < 20; i++) {
+            assertTrue(words.nextWord(5, random).length() >= 6);
+        }
+        // Nothing that long, the longest words are used
+        assertEquals(6, words.nextWord(10, random).length());
+    }
+
+    @Test
+    public void histogramPercentilesAreClose() {
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1000, histogram.getMax());
+        assertEquals(500.5, histogram.getMean(), 0.001);
+        long p50 = histogram.getPercentile(0.5);
+        assertTrue(p50 >= 500 && p50 <= 500 * 1.125);
+        assertEquals(1000, histogram.getPercentile(1.0));
+        assertEquals(7, histogram.getPercentile(0.007));
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.wordwizard;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the metrics registry and its file export.
+ */
+public class MetricsRegistryTest {
+
+    @Test
+    public void countsFromManyThreads() throws Exception {
+        MetricsRegistry metrics = new MetricsRegistry();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    metrics.increment("calls");
+                    metrics.histogram("latency.ms").record(i % 100);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(40_000, metrics.counter("calls").sum());
+        assertEquals(40_000, metrics.histogram("latency.ms").getCount());
+        assertEquals(99, metrics.histogram("latency.ms").getMax());
+    }
+
+    @Test
+    public void snapshotIsSortedAndCompact() throws Exception {
+        MetricsRegistry metrics = new MetricsRegistry();
+        metrics.increment("word.errors");
+        metrics.counter("round.started").add(3);
+        metrics.gauge("queued", () -> 7);
+        metrics.histogram("word.ms").record(10);
+        metrics.histogram("word.ms").record(30);
+
+        StringBuilder out = new StringBuilder();
+        metrics.writeSnapshot(out, 1234);
+
+        assertEquals("@1234\n"
+                + "c round.started 3\n"
+                + "c word.errors 1\n"
+                + "g queued 7\n"
+                + "h word.ms 2 20.0 10 30 30 30\n", out.toString());
+    }
+
+    @Test
+    public void removedGaugeIsNotExported() throws Exception {
+        MetricsRegistry metrics = new MetricsRegistry();
+        metrics.gauge("queued", () -> 1);
+        metrics.removeGauge("queued");
+
+        StringBuilder out = new StringBuilder();
+        metrics.writeSnapshot(out, 0);
+        assertEquals("@0\n", out.toString());
+    }
+
+    @Test
+    public void closingExportsLastSnapshot() throws Exception {
+        MetricsRegistry metrics = new MetricsRegistry();
+        File file = File.createTempFile("metrics", ".txt");
+        file.deleteOnExit();
+        metrics.increment("round.won");
+
+        MetricsRegistry.Exporter exporter = metrics.startExport(file, TimeUnit.HOURS.toMillis(1), 1024);
+        exporter.close();
+        assertTrue(exporter.awaitClosed(5, TimeUnit.SECONDS));
+
+        String text = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        assertTrue(text.startsWith("@"));
+        assertTrue(text.contains("c round.won 1\n"));
+    }
+
+    @Test
+    public void fullFileIsRotated() throws Exception {
+        MetricsRegistry metrics = new MetricsRegistry();
+        File file = File.createTempFile("metrics", ".txt");
+        File previous = new File(file.getPath() + ".1");
+        file.deleteOnExit();
+        previous.deleteOnExit();
+        Files.write(file.toPath(), new byte[200]);
+
+        MetricsRegistry.Exporter exporter = metrics.startExport(file, TimeUnit.HOURS.toMillis(1), 100);
+        exporter.close();
+        assertTrue(exporter.awaitClosed(5, TimeUnit.SECONDS));
+
+        assertEquals(200, previous.length());
+        assertTrue(file.length() < 100);
+    }
+}
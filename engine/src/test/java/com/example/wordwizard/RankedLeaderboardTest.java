@@ -0,0 +1,112 @@
+package com.example.wordwizard;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the local ranking and its Dreamlo ordering.
+ */
+public class RankedLeaderboardTest {
+
+    private final RankedLeaderboard board = new RankedLeaderboard();
+
+    @Test
+    public void keepsBestScorePerPlayer() {
+        assertTrue(board.submit(entry("alice", 80, 40)));
+        assertFalse(board.submit(entry("alice", 70, 10)));
+        // Same score, faster
+        assertTrue(board.submit(entry("alice", 80, 30)));
+        assertFalse(board.submit(entry("alice", 80, 30)));
+
+        assertEquals(1, board.size());
+        assertEquals(30, board.getEntry("alice").getSeconds());
+    }
+
+    @Test
+    public void ranksLikeDreamlo() {
+        board.submit(entry("carol", 90, 50));
+        board.submit(entry("alice", 90, 20));
+        board.submit(entry("bob", 100, 99));
+        board.submit(entry("dave", 60, 10));
+
+        assertEquals(1, board.getRank("bob"));
+        // Ties on score go to the faster player
+        assertEquals(2, board.getRank("alice"));
+        assertEquals(3, board.getRank("carol"));
+        assertEquals(4, board.getRank("dave"));
+        assertEquals(0, board.getRank("erin"));
+
+        assertEquals(names(board.getRows(1, 3)), List.of("alice", "carol"));
+        assertEquals(names(board.getScoresBetween(60, 90)), List.of("alice", "carol", "dave"));
+        assertEquals(1, board.countAbove(90));
+
+        // Improving moves the player up
+        board.submit(entry("dave", 95, 10));
+        assertEquals(2, board.getRank("dave"));
+        assertTrue(board.remove("bob"));
+        assertEquals(1, board.getRank("dave"));
+    }
+
+    @Test
+    public void mergeOrderDoesNotMatter() {
+        List<LeaderboardEntry> serverPage = List.of(entry("alice", 50, 10), entry("bob", 70, 10));
+        List<LeaderboardEntry> local = List.of(entry("alice", 60, 10));
+
+        RankedLeaderboard other = new RankedLeaderboard();
+        board.mergeAll(serverPage);
+        board.mergeAll(local);
+        other.mergeAll(local);
+        other.mergeAll(serverPage);
+
+        assertEquals(names(board.getRows(0, 10)), names(other.getRows(0, 10)));
+        assertEquals(60, other.getEntry("alice").getScore());
+    }
+
+    @Test
+    public void matchesSortedOrderUnderConcurrentSubmits() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            results.add(executor.submit(() -> {
+                Random random = new Random(thread);
+                for (int i = 0; i < 5000; i++) {
+                    board.submit(entry("p" + random.nextInt(2000), random.nextInt(1000), random.nextInt(600)));
+                }
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        executor.shutdown();
+
+        List<LeaderboardEntry> rows = board.getRows(0, board.size());
+        assertEquals(board.size(), rows.size());
+        for (int i = 1; i < rows.size(); i++) {
+            assertTrue(RankedLeaderboard.compare(rows.get(i - 1), rows.get(i)) < 0);
+        }
+        for (int i = 0; i < rows.size(); i += 97) {
+            assertEquals(i + 1, board.getRank(rows.get(i).getName()));
+        }
+    }
+
+    private static LeaderboardEntry entry(String name, int score, int seconds) {
+        return new LeaderboardEntry(name, score, seconds, "Level1", "");
+    }
+
+    private static List<String> names(List<LeaderboardEntry> entries) {
+        List<String> names = new ArrayList<>();
+        for (LeaderboardEntry entry : entries) {
+            names.add(entry.getName());
+        }
+        return names;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.wordwizard;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the secret word's letter index.
+ */
+public class SecretWordIndexTest {
+
+    private final SecretWordIndex index = new SecretWordIndex("banana");
+
+    @Test
+    public void countsLettersIgnoringCase() {
+        assertEquals(3, index.countOf('a'));
+        assertEquals(2, index.countOf('N'));
+        assertEquals(1, index.countOf('b'));
+        assertEquals(0, index.countOf('z'));
+        assertEquals(0, index.countOf('é'));
+        assertFalse(index.contains('q'));
+    }
+
+    @Test
+    public void answersPositionQueries() {
+        assertEquals(6, index.length());
+        assertEquals('b', index.getFirstLetter());
+        assertEquals('a', index.getLastLetter());
+        assertEquals('n', index.letterAt(2));
+        assertEquals(0b101010, index.positionsOf('a'));
+        assertTrue(index.isAt('N', 4));
+        assertFalse(index.isAt('n', 3));
+        assertFalse(index.isAt('a', 6));
+    }
+
+    @Test
+    public void matchesGuessWithoutNormalizing() {
+        assertTrue(index.matches("banana"));
+        assertTrue(index.matches("  BaNaNa \n"));
+        assertFalse(index.matches("bananas"));
+        assertFalse(index.matches("banan"));
+        assertTrue(SecretWordIndex.isBlank(" \t"));
+        assertFalse(SecretWordIndex.isBlank(" a"));
+    }
+
+    @Test
+    public void indexesNonAsciiByScanning() {
+        SecretWordIndex accented = new SecretWordIndex("café");
+        assertEquals(1, accented.countOf('É'));
+        assertTrue(accented.isAt('é', 3));
+        assertTrue(accented.matches("CAFÉ"));
+    }
+}
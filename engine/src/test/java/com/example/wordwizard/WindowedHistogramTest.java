@@ -0,0 +1,42 @@
+package com.example.wordwizard;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the two-window histogram.
+ */
+public class WindowedHistogramTest {
+
+    @Test
+    public void valuesAgeOutAfterTwoRotations() {
+        WindowedHistogram histogram = new WindowedHistogram();
+        for (int i = 0; i < 10; i++) {
+            histogram.record(1000);
+        }
+        histogram.rotate();
+        histogram.record(10);
+
+        // Both windows still count
+        assertEquals(11, histogram.getCount());
+        assertEquals(1, histogram.getCurrentCount());
+        assertEquals(1000, histogram.getPercentile(0.9));
+
+        histogram.rotate();
+        assertEquals(1, histogram.getCount());
+        assertEquals(10, histogram.getPercentile(0.9));
+    }
+
+    @Test
+    public void clearDropsBothWindows() {
+        WindowedHistogram histogram = new WindowedHistogram();
+        histogram.record(5);
+        histogram.rotate();
+        histogram.record(7);
+        histogram.clear();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(0.5));
+    }
+}
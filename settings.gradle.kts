@@ -21,3 +21,4 @@ dependencyResolutionManagement {
 
 rootProject.name = "WordWizard"
 include(":app")
+include(":engine")